@@ -0,0 +1,142 @@
+package gov.usds.ecfr.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import gov.usds.ecfr.model.SiteAnalysisResult;
+import gov.usds.ecfr.service.HttpArchive;
+import gov.usds.ecfr.service.JsoupPageFetcher;
+import gov.usds.ecfr.service.RecordingPageFetcher;
+import gov.usds.ecfr.service.ReplayPageFetcher;
+import gov.usds.ecfr.service.SiteAnalysisService;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Command-line batch runner for recording and replaying HTTP archives.
+ * Runs outside the Spring context so replay measures analysis throughput alone.
+ *
+ * <pre>
+ * record &lt;urls-file&gt; &lt;archive&gt;                              fetch each URL live and append it to the archive
+ * replay &lt;archive&gt; [--threads N] [--output results.jsonl]   re-analyze every archived page with no network access
+ * </pre>
+ *
+ * From the packaged jar:
+ * {@code java -Dloader.main=gov.usds.ecfr.batch.ArchiveRunner -cp app.jar org.springframework.boot.loader.launch.PropertiesLauncher replay pages.archive}
+ */
+public class ArchiveRunner {
+
+    public static void main(String[] args) throws Exception {
+        LoggingSystem loggingSystem = LoggingSystem.get(ArchiveRunner.class.getClassLoader());
+        loggingSystem.beforeInitialize();
+        loggingSystem.setLogLevel(LoggingSystem.ROOT_LOGGER_NAME, LogLevel.WARN);
+
+        if (args.length >= 3 && args[0].equals("record")) {
+            record(Path.of(args[1]), Path.of(args[2]));
+        } else if (args.length >= 2 && args[0].equals("replay")) {
+            int threads = Runtime.getRuntime().availableProcessors();
+            Path output = null;
+            for (int i = 2; i + 1 < args.length; i += 2) {
+                switch (args[i]) {
+                    case "--threads" -> threads = Integer.parseInt(args[i + 1]);
+                    case "--output" -> output = Path.of(args[i + 1]);
+                    default -> usage();
+                }
+            }
+            int failures = replay(HttpArchive.open(Path.of(args[1])), threads, output);
+            System.exit(failures == 0 ? 0 : 1);
+        } else {
+            usage();
+        }
+    }
+
+    /**
+     * Fetches every non-blank, non-comment line of the URL file live and records it.
+     */
+    static void record(Path urlsFile, Path archivePath) throws IOException {
+        List<String> urls = Files.readAllLines(urlsFile, StandardCharsets.UTF_8).stream()
+                .map(String::trim)
+                .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                .collect(Collectors.toList());
+
+        int recorded = 0;
+        try (RecordingPageFetcher fetcher =
+                     new RecordingPageFetcher(new JsoupPageFetcher(), HttpArchive.writer(archivePath))) {
+            for (String url : urls) {
+                try {
+                    fetcher.fetch(url);
+                    recorded++;
+                } catch (IOException e) {
+                    System.err.println("Failed to record " + url + ": " + e.getMessage());
+                }
+            }
+        }
+        System.out.printf("Recorded %d of %d URLs into %s%n", recorded, urls.size(), archivePath);
+    }
+
+    /**
+     * Analyzes every page in the archive on a fixed pool and prints throughput.
+     * Returns the number of pages that failed to analyze.
+     */
+    static int replay(HttpArchive archive, int threads, Path output) throws IOException, InterruptedException {
+        // Each page is analyzed once, so skip the page cache and its hashing and locking
+        SiteAnalysisService service = new SiteAnalysisService(new ReplayPageFetcher(archive));
+        List<String> urls = archive.urls();
+        AtomicInteger failures = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long startTime = System.nanoTime();
+        List<Future<SiteAnalysisResult>> futures = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            futures.add(executor.submit(() -> service.analyzeSite(url)));
+        }
+
+        List<SiteAnalysisResult> results = new ArrayList<>(urls.size());
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                results.add(futures.get(i).get());
+            } catch (ExecutionException e) {
+                failures.incrementAndGet();
+                System.err.println("Failed to analyze " + urls.get(i) + ": " + e.getCause().getMessage());
+            }
+        }
+        long elapsedNanos = System.nanoTime() - startTime;
+        executor.shutdown();
+
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        System.out.printf("Analyzed %d pages (%d failed) on %d threads in %.2fs: %.1f pages/s%n",
+                results.size(), failures.get(), threads, seconds, results.size() / seconds);
+
+        if (output != null) {
+            ObjectMapper mapper = new ObjectMapper()
+                    .findAndRegisterModules()
+                    .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+            try (BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+                for (SiteAnalysisResult result : results) {
+                    writer.write(mapper.writeValueAsString(result));
+                    writer.newLine();
+                }
+            }
+        }
+        return failures.get();
+    }
+
+    private static void usage() {
+        System.err.println("Usage: ArchiveRunner record <urls-file> <archive>");
+        System.err.println("       ArchiveRunner replay <archive> [--threads N] [--output results.jsonl]");
+        System.exit(2);
+    }
+}
@@ -0,0 +1,245 @@
+package gov.usds.ecfr.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gov.usds.ecfr.model.CrawlTask;
+import gov.usds.ecfr.service.ConcurrencyLimitExceededException;
+import gov.usds.ecfr.service.PageFetcher;
+import gov.usds.ecfr.service.SiteAnalysisService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Clock;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coordinates distributed crawl mode for one backend instance.
+ *
+ * <p>Every URL is assigned to one of {@link #SHARD_COUNT} shards by hashing its host, and shards
+ * are spread over the live nodes with a consistent-hash ring. All pages of a host are therefore
+ * fetched by a single node, which keeps per-host politeness limits correct cluster-wide. Nodes
+ * heartbeat into the shared {@link ClusterStore}; when one joins, leaves or stops heartbeating,
+ * the others rebuild the ring and pick up its shards, including tasks it had claimed but not finished.
+ *
+ * <p>Polling only hands claimed tasks to the worker pool and never waits for them, so a slow
+ * analysis cannot hold up the scheduler thread that also sends heartbeats. At most
+ * {@code batchSize} tasks are claimed but unfinished at any time.
+ */
+@Slf4j
+public class ClusterCoordinator {
+
+    public static final int SHARD_COUNT = 256;
+    private static final int VIRTUAL_NODES = 64;
+
+    private final String nodeId;
+    private final ClusterStore store;
+    private final SiteAnalysisService siteAnalysisService;
+    private final ObjectMapper objectMapper;
+    private final long heartbeatTimeoutMs;
+    private final int batchSize;
+    private final Clock clock;
+    private final ExecutorService workers;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile List<String> members = List.of();
+    private volatile ConsistentHashRing ring = new ConsistentHashRing(List.of(), VIRTUAL_NODES);
+
+    public ClusterCoordinator(String nodeId, ClusterStore store, SiteAnalysisService siteAnalysisService,
+                              ObjectMapper objectMapper, long heartbeatTimeoutMs, int batchSize, int workerThreads,
+                              Clock clock) {
+        this.nodeId = nodeId;
+        this.store = store;
+        this.siteAnalysisService = siteAnalysisService;
+        this.objectMapper = objectMapper;
+        this.heartbeatTimeoutMs = heartbeatTimeoutMs;
+        this.batchSize = batchSize;
+        this.clock = clock;
+        this.workers = Executors.newFixedThreadPool(workerThreads);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public List<String> getMembers() {
+        return members;
+    }
+
+    /**
+     * Records this node as alive and rebalances if cluster membership changed.
+     */
+    @Scheduled(fixedDelayString = "${analysis.cluster.heartbeat-ms:5000}")
+    public void heartbeat() {
+        heartbeat(clock.millis());
+    }
+
+    void heartbeat(long now) {
+        store.heartbeat(nodeId, now);
+        refreshMembership(now);
+    }
+
+    void refreshMembership(long now) {
+        List<String> live = store.liveNodes(now - heartbeatTimeoutMs);
+        if (!live.equals(members)) {
+            log.info("Cluster membership changed on {}: {} -> {}", nodeId, members, live);
+            members = live;
+            ring = new ConsistentHashRing(live, VIRTUAL_NODES);
+        }
+    }
+
+    /**
+     * Claims tasks from the shards this node owns, up to the free worker capacity,
+     * and queues them for analysis without waiting.
+     */
+    @Scheduled(fixedDelayString = "${analysis.cluster.poll-ms:1000}")
+    public void poll() {
+        poll(clock.millis());
+    }
+
+    /**
+     * Returns the number of tasks claimed and handed to the workers.
+     */
+    int poll(long now) {
+        Set<Integer> shards = ownedShards();
+        int capacity = batchSize - inFlight.get();
+        if (shards.isEmpty() || capacity <= 0 || workers.isShutdown()) {
+            return 0;
+        }
+
+        int claimed = 0;
+        for (CrawlTask task : store.findClaimable(shards, now - heartbeatTimeoutMs, capacity)) {
+            if (task.getStatus() == CrawlTask.Status.CLAIMED) {
+                log.info("Reclaiming {} from unresponsive node {}", task.getUrl(), task.getOwner());
+            }
+            if (!store.claim(task, nodeId, now)) {
+                continue;
+            }
+            inFlight.incrementAndGet();
+            try {
+                workers.execute(() -> {
+                    try {
+                        process(task.getUrl());
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+                claimed++;
+            } catch (RejectedExecutionException e) {
+                // Shutting down; peers reclaim the task once this node leaves
+                inFlight.decrementAndGet();
+                break;
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * Returns the number of claimed tasks that are queued or being analyzed.
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void process(String url) {
+        try {
+            String result = objectMapper.writeValueAsString(siteAnalysisService.analyzeSite(url));
+            store.complete(url, nodeId, result, clock.millis());
+        } catch (Exception e) {
+            if (Thread.currentThread().isInterrupted()) {
+                // Interrupted by shutdown, not a task failure; leave it CLAIMED for a peer to reclaim
+                log.info("Crawl task {} interrupted on {}; leaving it for another node", url, nodeId);
+                return;
+            }
+            if (causedBy(e, ConcurrencyLimitExceededException.class)) {
+                // The host is saturated locally; try again on a later poll instead of failing the task
+                log.debug("Requeueing {} on {}: {}", url, nodeId, e.getMessage());
+                store.release(url, nodeId, clock.millis());
+                return;
+            }
+            log.warn("Crawl task {} failed on {}: {}", url, nodeId, e.getMessage());
+            store.fail(url, nodeId, e.getMessage(), clock.millis());
+        }
+    }
+
+    /**
+     * Queues URLs for analysis by whichever node owns their host.
+     */
+    public void submit(Collection<String> urls) {
+        long now = clock.millis();
+        for (String url : urls) {
+            String host = PageFetcher.hostOf(url);
+            store.enqueue(url, host, shardOf(host), now);
+        }
+    }
+
+    public CrawlTask task(String url) {
+        return store.find(url);
+    }
+
+    public ClusterStore getStore() {
+        return store;
+    }
+
+    /**
+     * Returns the node currently responsible for a host, or null if no node is live.
+     */
+    public String ownerOfHost(String host) {
+        return ring.ownerOf(shardKey(shardOf(host)));
+    }
+
+    public Set<Integer> ownedShards() {
+        ConsistentHashRing current = ring;
+        Set<Integer> shards = new TreeSet<>();
+        for (int shard = 0; shard < SHARD_COUNT; shard++) {
+            if (nodeId.equals(current.ownerOf(shardKey(shard)))) {
+                shards.add(shard);
+            }
+        }
+        return shards;
+    }
+
+    /**
+     * Lets running tasks finish, for up to the heartbeat timeout, before leaving the cluster.
+     * Tasks still running after that are interrupted and left CLAIMED, so peers reclaim them.
+     */
+    @PreDestroy
+    public void leave() {
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(heartbeatTimeoutMs, TimeUnit.MILLISECONDS)) {
+                log.warn("Node {} leaving with {} crawl tasks unfinished", nodeId, inFlight.get());
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        store.leave(nodeId);
+        log.info("Node {} left the cluster", nodeId);
+    }
+
+    private static boolean causedBy(Throwable e, Class<? extends Throwable> type) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (type.isInstance(cause)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static int shardOf(String host) {
+        return (int) Math.floorMod(ConsistentHashRing.hash(host), (long) SHARD_COUNT);
+    }
+
+    private static String shardKey(int shard) {
+        return "shard-" + shard;
+    }
+}
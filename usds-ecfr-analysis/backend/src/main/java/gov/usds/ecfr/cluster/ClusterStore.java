@@ -0,0 +1,53 @@
+package gov.usds.ecfr.cluster;
+
+import gov.usds.ecfr.model.CrawlTask;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shared state for distributed crawl mode: node heartbeats and the crawl task queue.
+ * Every instance in the cluster must point at the same store.
+ */
+public interface ClusterStore {
+
+    void heartbeat(String nodeId, long now);
+
+    /**
+     * Returns ids of nodes whose last heartbeat is at or after the given time, sorted.
+     */
+    List<String> liveNodes(long since);
+
+    void leave(String nodeId);
+
+    /**
+     * Queues a URL as PENDING. A task that is already DONE or FAILED is queued again;
+     * one that is currently CLAIMED is left alone.
+     */
+    void enqueue(String url, String host, int shard, long now);
+
+    /**
+     * Returns up to {@code limit} tasks in the given shards that are PENDING, or CLAIMED by a
+     * node that has not heartbeat since {@code liveSince}.
+     */
+    List<CrawlTask> findClaimable(Collection<Integer> shards, long liveSince, int limit);
+
+    /**
+     * Atomically claims a task if its status and owner still match the given snapshot.
+     */
+    boolean claim(CrawlTask snapshot, String nodeId, long now);
+
+    /**
+     * Returns a task claimed by this node to PENDING so it is picked up again by a later poll.
+     */
+    void release(String url, String nodeId, long now);
+
+    void complete(String url, String nodeId, String result, long now);
+
+    void fail(String url, String nodeId, String error, long now);
+
+    CrawlTask find(String url);
+
+    Map<CrawlTask.Status, Long> countByStatus();
+}
@@ -0,0 +1,140 @@
+package gov.usds.ecfr.cluster;
+
+import gov.usds.ecfr.model.CrawlTask;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Single-JVM stand-in for the shared datastore, used to run several coordinators
+ * side by side in tests or local experiments.
+ */
+public class InMemoryClusterStore implements ClusterStore {
+
+    private final Map<String, Long> heartbeats = new HashMap<>();
+    private final Map<String, CrawlTask> tasks = new LinkedHashMap<>();
+
+    @Override
+    public synchronized void heartbeat(String nodeId, long now) {
+        heartbeats.put(nodeId, now);
+    }
+
+    @Override
+    public synchronized List<String> liveNodes(long since) {
+        return heartbeats.entrySet().stream()
+                .filter(entry -> entry.getValue() >= since)
+                .map(Map.Entry::getKey)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public synchronized void leave(String nodeId) {
+        heartbeats.remove(nodeId);
+    }
+
+    @Override
+    public synchronized void enqueue(String url, String host, int shard, long now) {
+        CrawlTask existing = tasks.get(url);
+        if (existing != null && existing.getStatus() == CrawlTask.Status.CLAIMED) {
+            return;
+        }
+        tasks.put(url, CrawlTask.builder()
+                .url(url)
+                .host(host)
+                .shard(shard)
+                .status(CrawlTask.Status.PENDING)
+                .updatedAt(now)
+                .build());
+    }
+
+    @Override
+    public synchronized List<CrawlTask> findClaimable(Collection<Integer> shards, long liveSince, int limit) {
+        List<String> live = liveNodes(liveSince);
+        List<CrawlTask> claimable = new ArrayList<>();
+        for (CrawlTask task : tasks.values()) {
+            if (claimable.size() >= limit) {
+                break;
+            }
+            boolean stale = task.getStatus() == CrawlTask.Status.CLAIMED && !live.contains(task.getOwner());
+            if (shards.contains(task.getShard()) && (task.getStatus() == CrawlTask.Status.PENDING || stale)) {
+                claimable.add(copy(task));
+            }
+        }
+        return claimable;
+    }
+
+    @Override
+    public synchronized boolean claim(CrawlTask snapshot, String nodeId, long now) {
+        CrawlTask task = tasks.get(snapshot.getUrl());
+        if (task == null || task.getStatus() != snapshot.getStatus()
+                || !Objects.equals(task.getOwner(), snapshot.getOwner())) {
+            return false;
+        }
+        task.setStatus(CrawlTask.Status.CLAIMED);
+        task.setOwner(nodeId);
+        task.setUpdatedAt(now);
+        return true;
+    }
+
+    @Override
+    public synchronized void release(String url, String nodeId, long now) {
+        CrawlTask task = tasks.get(url);
+        if (task != null && nodeId.equals(task.getOwner()) && task.getStatus() == CrawlTask.Status.CLAIMED) {
+            task.setStatus(CrawlTask.Status.PENDING);
+            task.setOwner(null);
+            task.setUpdatedAt(now);
+            // Move to the back of the queue, matching the JDBC store's ORDER BY updated_at
+            tasks.remove(url);
+            tasks.put(url, task);
+        }
+    }
+
+    @Override
+    public synchronized void complete(String url, String nodeId, String result, long now) {
+        finish(url, nodeId, CrawlTask.Status.DONE, result, null, now);
+    }
+
+    @Override
+    public synchronized void fail(String url, String nodeId, String error, long now) {
+        finish(url, nodeId, CrawlTask.Status.FAILED, null, error, now);
+    }
+
+    @Override
+    public synchronized CrawlTask find(String url) {
+        CrawlTask task = tasks.get(url);
+        return task != null ? copy(task) : null;
+    }
+
+    @Override
+    public synchronized Map<CrawlTask.Status, Long> countByStatus() {
+        Map<CrawlTask.Status, Long> counts = new EnumMap<>(CrawlTask.Status.class);
+        for (CrawlTask task : tasks.values()) {
+            counts.merge(task.getStatus(), 1L, Long::sum);
+        }
+        return counts;
+    }
+
+    private void finish(String url, String nodeId, CrawlTask.Status status, String result, String error, long now) {
+        CrawlTask task = tasks.get(url);
+        // A task reclaimed by another node after this one was presumed dead belongs to the new owner
+        if (task != null && nodeId.equals(task.getOwner()) && task.getStatus() == CrawlTask.Status.CLAIMED) {
+            task.setStatus(status);
+            task.setResult(result);
+            task.setError(error);
+            task.setUpdatedAt(now);
+        }
+    }
+
+    private static CrawlTask copy(CrawlTask task) {
+        return new CrawlTask(task.getUrl(), task.getHost(), task.getShard(), task.getStatus(),
+                task.getOwner(), task.getUpdatedAt(), task.getResult(), task.getError());
+    }
+}
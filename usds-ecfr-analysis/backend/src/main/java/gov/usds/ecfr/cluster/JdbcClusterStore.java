@@ -0,0 +1,155 @@
+package gov.usds.ecfr.cluster;
+
+import gov.usds.ecfr.model.CrawlTask;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cluster store backed by the application datasource (H2 in development, the shared
+ * PostgreSQL in production). Claims are compare-and-set updates, so concurrent nodes
+ * never both own a task.
+ */
+@Slf4j
+public class JdbcClusterStore implements ClusterStore {
+
+    private static final RowMapper<CrawlTask> TASK_MAPPER = (rs, rowNum) -> CrawlTask.builder()
+            .url(rs.getString("url"))
+            .host(rs.getString("host"))
+            .shard(rs.getInt("shard"))
+            .status(CrawlTask.Status.valueOf(rs.getString("status")))
+            .owner(rs.getString("owner"))
+            .updatedAt(rs.getLong("updated_at"))
+            .result(rs.getString("result"))
+            .error(rs.getString("error"))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public JdbcClusterStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        createSchema();
+    }
+
+    private void createSchema() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS analysis_node ("
+                + "node_id VARCHAR(128) PRIMARY KEY, "
+                + "last_heartbeat BIGINT NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS crawl_task ("
+                + "url VARCHAR(2048) PRIMARY KEY, "
+                + "host VARCHAR(255) NOT NULL, "
+                + "shard INTEGER NOT NULL, "
+                + "status VARCHAR(16) NOT NULL, "
+                + "owner VARCHAR(128), "
+                + "updated_at BIGINT NOT NULL, "
+                + "result TEXT, "
+                + "error VARCHAR(1024))");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS crawl_task_shard_status ON crawl_task (shard, status)");
+        log.info("Cluster tables ready");
+    }
+
+    @Override
+    public void heartbeat(String nodeId, long now) {
+        int updated = jdbcTemplate.update("UPDATE analysis_node SET last_heartbeat = ? WHERE node_id = ?", now, nodeId);
+        if (updated == 0) {
+            try {
+                jdbcTemplate.update("INSERT INTO analysis_node (node_id, last_heartbeat) VALUES (?, ?)", nodeId, now);
+            } catch (DuplicateKeyException e) {
+                jdbcTemplate.update("UPDATE analysis_node SET last_heartbeat = ? WHERE node_id = ?", now, nodeId);
+            }
+        }
+    }
+
+    @Override
+    public List<String> liveNodes(long since) {
+        return jdbcTemplate.queryForList(
+                "SELECT node_id FROM analysis_node WHERE last_heartbeat >= ? ORDER BY node_id", String.class, since);
+    }
+
+    @Override
+    public void leave(String nodeId) {
+        jdbcTemplate.update("DELETE FROM analysis_node WHERE node_id = ?", nodeId);
+    }
+
+    @Override
+    public void enqueue(String url, String host, int shard, long now) {
+        int updated = jdbcTemplate.update("UPDATE crawl_task SET status = 'PENDING', owner = NULL, result = NULL, "
+                + "error = NULL, updated_at = ? WHERE url = ? AND status <> 'CLAIMED'", now, url);
+        if (updated == 0) {
+            try {
+                jdbcTemplate.update("INSERT INTO crawl_task (url, host, shard, status, updated_at) "
+                        + "VALUES (?, ?, ?, 'PENDING', ?)", url, host, shard, now);
+            } catch (DuplicateKeyException e) {
+                log.debug("Task for {} is already claimed; not re-queued", url);
+            }
+        }
+    }
+
+    @Override
+    public List<CrawlTask> findClaimable(Collection<Integer> shards, long liveSince, int limit) {
+        if (shards.isEmpty()) {
+            return List.of();
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("shards", shards)
+                .addValue("liveSince", liveSince)
+                .addValue("limit", limit);
+        return namedJdbcTemplate.query("SELECT * FROM crawl_task WHERE shard IN (:shards) AND ("
+                + "status = 'PENDING' OR (status = 'CLAIMED' AND owner NOT IN "
+                + "(SELECT node_id FROM analysis_node WHERE last_heartbeat >= :liveSince))) "
+                + "ORDER BY updated_at LIMIT :limit", params, TASK_MAPPER);
+    }
+
+    @Override
+    public boolean claim(CrawlTask snapshot, String nodeId, long now) {
+        return jdbcTemplate.update("UPDATE crawl_task SET status = 'CLAIMED', owner = ?, updated_at = ? "
+                        + "WHERE url = ? AND status = ? AND COALESCE(owner, '') = ?",
+                nodeId, now, snapshot.getUrl(), snapshot.getStatus().name(),
+                snapshot.getOwner() == null ? "" : snapshot.getOwner()) == 1;
+    }
+
+    @Override
+    public void release(String url, String nodeId, long now) {
+        jdbcTemplate.update("UPDATE crawl_task SET status = 'PENDING', owner = NULL, updated_at = ? "
+                + "WHERE url = ? AND owner = ? AND status = 'CLAIMED'", now, url, nodeId);
+    }
+
+    @Override
+    public void complete(String url, String nodeId, String result, long now) {
+        jdbcTemplate.update("UPDATE crawl_task SET status = 'DONE', result = ?, error = NULL, updated_at = ? "
+                + "WHERE url = ? AND owner = ? AND status = 'CLAIMED'", result, now, url, nodeId);
+    }
+
+    @Override
+    public void fail(String url, String nodeId, String error, long now) {
+        jdbcTemplate.update("UPDATE crawl_task SET status = 'FAILED', error = ?, updated_at = ? "
+                        + "WHERE url = ? AND owner = ? AND status = 'CLAIMED'",
+                error != null && error.length() > 1024 ? error.substring(0, 1024) : error, now, url, nodeId);
+    }
+
+    @Override
+    public CrawlTask find(String url) {
+        List<CrawlTask> tasks = jdbcTemplate.query("SELECT * FROM crawl_task WHERE url = ?", TASK_MAPPER, url);
+        return tasks.isEmpty() ? null : tasks.get(0);
+    }
+
+    @Override
+    public Map<CrawlTask.Status, Long> countByStatus() {
+        Map<CrawlTask.Status, Long> counts = new EnumMap<>(CrawlTask.Status.class);
+        jdbcTemplate.query("SELECT status, COUNT(*) AS total FROM crawl_task GROUP BY status",
+                rs -> {
+                    counts.put(CrawlTask.Status.valueOf(rs.getString("status")), rs.getLong("total"));
+                });
+        return counts;
+    }
+}
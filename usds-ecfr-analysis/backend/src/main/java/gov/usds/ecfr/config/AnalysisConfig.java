@@ -0,0 +1,54 @@
+package gov.usds.ecfr.config;
+
+import gov.usds.ecfr.service.AdaptiveConcurrencyLimiter;
+import gov.usds.ecfr.service.HttpArchive;
+import gov.usds.ecfr.service.JsoupPageFetcher;
+import gov.usds.ecfr.service.LimitedPageFetcher;
+import gov.usds.ecfr.service.PageFetcher;
+import gov.usds.ecfr.service.RecordingPageFetcher;
+import gov.usds.ecfr.service.ReplayPageFetcher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Wires the fetch stage of the analysis pipeline.
+ * {@code analysis.archive.mode} selects live fetching, recording into an archive,
+ * or replaying an archive with no network access. Live fetches are throttled per host
+ * by the {@link AdaptiveConcurrencyLimiter}.
+ */
+@Configuration
+@Slf4j
+public class AnalysisConfig {
+
+    @Bean
+    public PageFetcher pageFetcher(@Value("${analysis.archive.mode:live}") String mode,
+                                   @Value("${analysis.archive.path:}") String archivePath,
+                                   @Value("${analysis.limiter.acquire-timeout-ms:10000}") long acquireTimeoutMs,
+                                   AdaptiveConcurrencyLimiter limiter) throws IOException {
+        PageFetcher live = new LimitedPageFetcher(new JsoupPageFetcher(), limiter, acquireTimeoutMs);
+        switch (mode.toLowerCase()) {
+            case "live":
+                return live;
+            case "record":
+                log.info("Recording fetched pages to {}", requirePath(archivePath));
+                return new RecordingPageFetcher(live, HttpArchive.writer(Path.of(archivePath)));
+            case "replay":
+                log.info("Replaying fetched pages from {}", requirePath(archivePath));
+                return new ReplayPageFetcher(HttpArchive.open(Path.of(archivePath)));
+            default:
+                throw new IllegalArgumentException("Unknown analysis.archive.mode: " + mode);
+        }
+    }
+
+    private static String requirePath(String archivePath) {
+        if (archivePath.isBlank()) {
+            throw new IllegalArgumentException("analysis.archive.path must be set to record or replay");
+        }
+        return archivePath;
+    }
+}
@@ -0,0 +1,70 @@
+package gov.usds.ecfr.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gov.usds.ecfr.cluster.ClusterCoordinator;
+import gov.usds.ecfr.cluster.ClusterStore;
+import gov.usds.ecfr.cluster.InMemoryClusterStore;
+import gov.usds.ecfr.cluster.JdbcClusterStore;
+import gov.usds.ecfr.service.SiteAnalysisService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Clock;
+import java.util.UUID;
+
+/**
+ * Enables distributed crawl mode when {@code analysis.cluster.enabled=true}.
+ * {@code analysis.cluster.store=jdbc} shares state through the application datasource;
+ * {@code memory} keeps it inside this JVM and is only useful for local experiments.
+ */
+@Configuration
+@ConditionalOnProperty(name = "analysis.cluster.enabled", havingValue = "true")
+@EnableScheduling
+@Slf4j
+public class ClusterConfig {
+
+    @Bean
+    public ClusterStore clusterStore(@Value("${analysis.cluster.store:jdbc}") String storeType,
+                                     ObjectProvider<JdbcTemplate> jdbcTemplate) {
+        switch (storeType.toLowerCase()) {
+            case "jdbc":
+                return new JdbcClusterStore(jdbcTemplate.getObject());
+            case "memory":
+                return new InMemoryClusterStore();
+            default:
+                throw new IllegalArgumentException("Unknown analysis.cluster.store: " + storeType);
+        }
+    }
+
+    @Bean
+    public ClusterCoordinator clusterCoordinator(ClusterStore clusterStore,
+                                                 SiteAnalysisService siteAnalysisService,
+                                                 ObjectMapper objectMapper,
+                                                 @Value("${analysis.cluster.node-id:}") String nodeId,
+                                                 @Value("${analysis.cluster.heartbeat-timeout-ms:15000}") long heartbeatTimeoutMs,
+                                                 @Value("${analysis.cluster.batch-size:20}") int batchSize,
+                                                 @Value("${analysis.cluster.workers:4}") int workers) {
+        String id = nodeId.isBlank() ? defaultNodeId() : nodeId;
+        log.info("Starting distributed crawl mode as node {}", id);
+        return new ClusterCoordinator(id, clusterStore, siteAnalysisService, objectMapper,
+                heartbeatTimeoutMs, batchSize, workers, Clock.systemUTC());
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
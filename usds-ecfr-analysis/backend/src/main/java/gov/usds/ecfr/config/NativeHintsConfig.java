@@ -0,0 +1,17 @@
+package gov.usds.ecfr.config;
+
+import gov.usds.ecfr.model.CrawlTask;
+import gov.usds.ecfr.model.SiteAnalysisResult;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Ahead-of-time hints for the GraalVM native image.
+ * Lombok generates plain accessors at compile time, so the result models only need the
+ * binding hints Jackson uses for (de)serialization; nested metric types are reached through
+ * their properties.
+ */
+@Configuration(proxyBeanMethods = false)
+@RegisterReflectionForBinding({SiteAnalysisResult.class, CrawlTask.class})
+public class NativeHintsConfig {
+}
@@ -0,0 +1,68 @@
+package gov.usds.ecfr.controller;
+
+import gov.usds.ecfr.cluster.ClusterCoordinator;
+import gov.usds.ecfr.model.CrawlTask;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST controller for distributed crawl mode.
+ * Any node accepts submissions; each URL is analyzed by the node owning its host.
+ */
+@RestController
+@RequestMapping("/api/analysis/cluster")
+@CrossOrigin(origins = "http://localhost:4200")
+@ConditionalOnProperty(name = "analysis.cluster.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class ClusterController {
+
+    private final ClusterCoordinator clusterCoordinator;
+
+    /**
+     * Queues URLs for distributed analysis.
+     *
+     * @param urls URLs to analyze
+     * @return Number of URLs queued
+     */
+    @PostMapping("/crawl")
+    public ResponseEntity<Map<String, Object>> crawl(@RequestBody List<String> urls) {
+        log.info("Queueing {} URLs for distributed analysis", urls.size());
+        clusterCoordinator.submit(urls);
+        return ResponseEntity.accepted().body(Map.of("queued", urls.size()));
+    }
+
+    /**
+     * Returns the crawl task for a URL, including its analysis result once complete.
+     *
+     * @param url URL previously submitted to /crawl
+     * @return CrawlTask, or 404 if the URL was never queued
+     */
+    @GetMapping("/task")
+    public ResponseEntity<CrawlTask> task(@RequestParam String url) {
+        CrawlTask task = clusterCoordinator.task(url);
+        return task != null ? ResponseEntity.ok(task) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Returns this node's view of the cluster.
+     *
+     * @return Node id, live members, owned shard count and task counts by status
+     */
+    @GetMapping("/status")
+    public ResponseEntity<Map<String, Object>> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("nodeId", clusterCoordinator.getNodeId());
+        status.put("members", clusterCoordinator.getMembers());
+        status.put("ownedShards", clusterCoordinator.ownedShards().size());
+        status.put("tasks", clusterCoordinator.getStore().countByStatus());
+        return ResponseEntity.ok(status);
+    }
+}
@@ -0,0 +1,33 @@
+package gov.usds.ecfr.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A URL queued for analysis in distributed crawl mode.
+ * Tasks are partitioned into shards by host so every page of a host is handled by one node.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CrawlTask {
+
+    private String url;
+    private String host;
+    private Integer shard;
+    private Status status;
+    private String owner; // node that claimed the task, if any
+    private Long updatedAt;
+    private String result; // SiteAnalysisResult as JSON once DONE
+    private String error;
+
+    public enum Status {
+        PENDING,
+        CLAIMED,
+        DONE,
+        FAILED
+    }
+}
@@ -0,0 +1,247 @@
+package gov.usds.ecfr.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-host limit on in-flight fetches, tuned from observed latency and errors.
+ *
+ * <p>Each host starts at the initial limit. A success whose smoothed latency stays within
+ * {@link #LATENCY_TOLERANCE} of the host's baseline grows the limit by roughly one per
+ * limit's worth of requests (additive increase). A latency spike shrinks it gently, and a
+ * timeout, 429 or 5xx halves it (multiplicative decrease). A degraded origin therefore
+ * ends up with few workers, and healthy origins keep the rest.
+ *
+ * <p>The baseline is the minimum latency seen over the current and previous
+ * {@link #BASELINE_WINDOW_MS} windows, so sustained slowness cannot pull it upward; a host
+ * that is permanently slower is only accepted as the new normal after a full window.
+ * Hosts with nothing in flight for the idle timeout are forgotten along with their gauges.
+ */
+@Component
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double LATENCY_TOLERANCE = 2.0;
+    private static final double LATENCY_BACKOFF = 0.9;
+    private static final double ERROR_BACKOFF = 0.5;
+    private static final double SHORT_ALPHA = 0.3;
+    private static final long BASELINE_WINDOW_MS = 5 * 60_000L;
+    private static final long DEFAULT_IDLE_TIMEOUT_MS = 10 * 60_000L;
+
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long idleTimeoutMs;
+    private final LongSupplier clock;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, HostLimit> hosts = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweep;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this(initialLimit, minLimit, maxLimit, DEFAULT_IDLE_TIMEOUT_MS, System::currentTimeMillis, null);
+    }
+
+    @Autowired
+    public AdaptiveConcurrencyLimiter(@Value("${analysis.limiter.initial-limit:4}") int initialLimit,
+                                      @Value("${analysis.limiter.min-limit:1}") int minLimit,
+                                      @Value("${analysis.limiter.max-limit:32}") int maxLimit,
+                                      @Value("${analysis.limiter.idle-timeout-ms:600000}") long idleTimeoutMs,
+                                      ObjectProvider<MeterRegistry> meterRegistry) {
+        this(initialLimit, minLimit, maxLimit, idleTimeoutMs, System::currentTimeMillis,
+                meterRegistry.getIfAvailable());
+    }
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long idleTimeoutMs,
+                               LongSupplier clock, MeterRegistry meterRegistry) {
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+        this.nextSweep = new AtomicLong(clock.getAsLong() + idleTimeoutMs);
+    }
+
+    /**
+     * Waits up to {@code timeoutMs} for an in-flight slot for the host.
+     * Returns false if none became free in time.
+     */
+    public boolean acquire(String host, long timeoutMs) throws InterruptedException {
+        evictIdleHostsIfDue();
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (true) {
+            HostLimit limit = hostLimit(host);
+            synchronized (limit) {
+                while (!limit.evicted && limit.inFlight >= (int) limit.limit) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    limit.wait(remaining);
+                }
+                // An evicted entry is no longer in the map; retry against its replacement
+                if (!limit.evicted) {
+                    limit.inFlight++;
+                    limit.lastUsed = clock.getAsLong();
+                    return true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Releases a slot after a successful fetch and adjusts the limit from its latency.
+     */
+    public void onSuccess(String host, long latencyMs) {
+        HostLimit limit = hostLimit(host);
+        synchronized (limit) {
+            long now = clock.getAsLong();
+            if (now - limit.windowStart >= BASELINE_WINDOW_MS) {
+                limit.previousWindowMin = limit.windowMin;
+                limit.windowMin = Long.MAX_VALUE;
+                limit.windowStart = now;
+            }
+            limit.windowMin = Math.min(limit.windowMin, latencyMs);
+            long baseline = Math.max(1, Math.min(limit.windowMin, limit.previousWindowMin));
+
+            if (limit.shortLatency == 0) {
+                limit.shortLatency = latencyMs;
+            } else {
+                limit.shortLatency += SHORT_ALPHA * (latencyMs - limit.shortLatency);
+            }
+
+            if (limit.shortLatency > baseline * LATENCY_TOLERANCE) {
+                decrease(host, limit, LATENCY_BACKOFF);
+            } else {
+                limit.limit = Math.min(maxLimit, limit.limit + 1.0 / limit.limit);
+            }
+            release(limit);
+        }
+    }
+
+    /**
+     * Releases a slot after a fetch that indicates overload: a timeout, 429 or 5xx.
+     */
+    public void onDropped(String host) {
+        HostLimit limit = hostLimit(host);
+        synchronized (limit) {
+            decrease(host, limit, ERROR_BACKOFF);
+            release(limit);
+        }
+    }
+
+    /**
+     * Releases a slot without adjusting the limit, e.g. after a 404.
+     */
+    public void onIgnored(String host) {
+        HostLimit limit = hostLimit(host);
+        synchronized (limit) {
+            release(limit);
+        }
+    }
+
+    public int getLimit(String host) {
+        HostLimit limit = hosts.get(host);
+        return limit != null ? (int) limit.limit : initialLimit;
+    }
+
+    public int getInFlight(String host) {
+        HostLimit limit = hosts.get(host);
+        return limit != null ? limit.inFlight : 0;
+    }
+
+    /**
+     * Returns the current limit for every host seen so far.
+     */
+    public Map<String, Integer> limits() {
+        Map<String, Integer> limits = new TreeMap<>();
+        hosts.forEach((host, limit) -> limits.put(host, (int) limit.limit));
+        return limits;
+    }
+
+    private HostLimit hostLimit(String host) {
+        return hosts.computeIfAbsent(host, key -> {
+            HostLimit limit = new HostLimit(initialLimit, clock.getAsLong());
+            if (meterRegistry != null) {
+                limit.meters.add(Gauge.builder("analysis.fetch.concurrency.limit", limit, l -> l.limit)
+                        .tag("host", key).register(meterRegistry));
+                limit.meters.add(Gauge.builder("analysis.fetch.inflight", limit, l -> l.inFlight)
+                        .tag("host", key).register(meterRegistry));
+            }
+            return limit;
+        });
+    }
+
+    /**
+     * Drops hosts with nothing in flight for the idle timeout, at most once per timeout.
+     */
+    private void evictIdleHostsIfDue() {
+        long now = clock.getAsLong();
+        long due = nextSweep.get();
+        if (now < due || !nextSweep.compareAndSet(due, now + idleTimeoutMs)) {
+            return;
+        }
+        hosts.forEach((host, limit) -> {
+            synchronized (limit) {
+                if (limit.inFlight == 0 && now - limit.lastUsed >= idleTimeoutMs) {
+                    limit.evicted = true;
+                    // Unregister gauges before unmapping, or a replacement entry created in between
+                    // would get the old gauges back from the registry and then lose them
+                    if (meterRegistry != null) {
+                        limit.meters.forEach(meterRegistry::remove);
+                    }
+                    hosts.remove(host, limit);
+                    log.debug("Forgot concurrency limit for idle host {}", host);
+                }
+            }
+        });
+    }
+
+    private void decrease(String host, HostLimit limit, double factor) {
+        int before = (int) limit.limit;
+        limit.limit = Math.max(minLimit, limit.limit * factor);
+        if ((int) limit.limit < before) {
+            log.debug("Reduced concurrency limit for {} from {} to {}", host, before, (int) limit.limit);
+        }
+    }
+
+    private void release(HostLimit limit) {
+        limit.inFlight--;
+        limit.lastUsed = clock.getAsLong();
+        limit.notifyAll();
+    }
+
+    private static final class HostLimit {
+        // Volatile so metric gauges can read them without taking the lock
+        private volatile double limit;
+        private volatile int inFlight;
+        private double shortLatency;
+        private long windowMin = Long.MAX_VALUE;
+        private long previousWindowMin = Long.MAX_VALUE;
+        private long windowStart;
+        private long lastUsed;
+        private boolean evicted;
+        private final List<Meter> meters = new ArrayList<>(2);
+
+        private HostLimit(int initialLimit, long now) {
+            this.limit = initialLimit;
+            this.windowStart = now;
+            this.lastUsed = now;
+        }
+    }
+}
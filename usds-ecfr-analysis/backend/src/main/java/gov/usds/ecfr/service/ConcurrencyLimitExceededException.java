@@ -0,0 +1,21 @@
+package gov.usds.ecfr.service;
+
+import java.io.IOException;
+
+/**
+ * Thrown when no fetch slot for a host became free in time. This is local backpressure,
+ * not a problem with the page, so callers should retry the fetch later rather than record a failure.
+ */
+public class ConcurrencyLimitExceededException extends IOException {
+
+    private final String host;
+
+    public ConcurrencyLimitExceededException(String host, int limit) {
+        super("Concurrency limit of " + limit + " reached for host " + host);
+        this.host = host;
+    }
+
+    public String getHost() {
+        return host;
+    }
+}
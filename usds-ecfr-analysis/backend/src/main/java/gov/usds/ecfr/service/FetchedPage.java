@@ -0,0 +1,22 @@
+package gov.usds.ecfr.service;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * Raw HTTP response for a single page as returned by a {@link PageFetcher}.
+ */
+@Value
+@Builder
+public class FetchedPage {
+    String url;
+    int statusCode;
+    String charset;
+    long responseTimeMs;
+    // Time until the response headers arrived, excluding the body download; 0 if not measured
+    long headersTimeMs;
+    Map<String, String> headers;
+    byte[] body;
+}
@@ -0,0 +1,199 @@
+package gov.usds.ecfr.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact on-disk archive of recorded HTTP responses, used to replay analyses offline.
+ *
+ * <p>The file is a fixed header followed by length-prefixed records
+ * (url, status, response time, charset, headers, body). Archives are read through a
+ * single read-only memory mapping; an index of record offsets by URL is built on open,
+ * and a URL recorded more than once resolves to its latest record.
+ */
+@Slf4j
+public final class HttpArchive {
+
+    private static final int MAGIC = 0x45434652; // "ECFR"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final Map<String, Integer> offsets;
+
+    private HttpArchive(Path path, MappedByteBuffer buffer, Map<String, Integer> offsets) {
+        this.path = path;
+        this.buffer = buffer;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Maps an archive into memory and indexes its records. A truncated trailing record,
+     * e.g. from a recording that was interrupted, is ignored.
+     */
+    public static HttpArchive open(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Archive " + path + " exceeds 2 GB; record into several smaller archives");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not an HTTP archive: " + path);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported archive version " + buffer.getInt(4) + " in " + path);
+        }
+
+        Map<String, Integer> offsets = new LinkedHashMap<>();
+        ByteBuffer scan = buffer.duplicate().position(HEADER_SIZE);
+        while (scan.hasRemaining()) {
+            int offset = scan.position();
+            try {
+                String url = readString(scan);
+                scan.position(scan.position() + 4 + 8); // status, response time
+                readString(scan); // charset
+                int headerCount = scan.getInt();
+                for (int i = 0; i < headerCount * 2; i++) {
+                    readString(scan);
+                }
+                int bodyLength = scan.getInt();
+                scan.position(scan.position() + bodyLength);
+                offsets.put(url, offset);
+            } catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e) {
+                log.warn("Ignoring truncated record at offset {} in {}", offset, path);
+                break;
+            }
+        }
+
+        log.info("Opened HTTP archive {} with {} pages", path, offsets.size());
+        return new HttpArchive(path, buffer, offsets);
+    }
+
+    public static Writer writer(Path path) throws IOException {
+        return new Writer(path);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public int size() {
+        return offsets.size();
+    }
+
+    /**
+     * Returns the recorded URLs in the order they were first recorded.
+     */
+    public List<String> urls() {
+        return new ArrayList<>(offsets.keySet());
+    }
+
+    public boolean contains(String url) {
+        return offsets.containsKey(url);
+    }
+
+    /**
+     * Returns the latest recorded response for a URL, or null if it was never recorded.
+     */
+    public FetchedPage get(String url) {
+        Integer offset = offsets.get(url);
+        if (offset == null) {
+            return null;
+        }
+
+        ByteBuffer record = buffer.duplicate().position(offset);
+        String recordedUrl = readString(record);
+        int statusCode = record.getInt();
+        long responseTimeMs = record.getLong();
+        String charset = readString(record);
+        int headerCount = record.getInt();
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (int i = 0; i < headerCount; i++) {
+            headers.put(readString(record), readString(record));
+        }
+        byte[] body = new byte[record.getInt()];
+        record.get(body);
+
+        return FetchedPage.builder()
+                .url(recordedUrl)
+                .statusCode(statusCode)
+                .charset(charset.isEmpty() ? null : charset)
+                .responseTimeMs(responseTimeMs)
+                .headers(headers)
+                .body(body)
+                .build();
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Appends records to an archive, creating it if necessary. Safe for concurrent fetchers.
+     */
+    public static final class Writer implements Closeable {
+
+        private final DataOutputStream out;
+
+        private Writer(Path path) throws IOException {
+            boolean isNew = !Files.exists(path) || Files.size(path) == 0;
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)));
+            if (isNew) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.flush();
+            }
+        }
+
+        public synchronized void write(FetchedPage page) throws IOException {
+            writeString(page.getUrl());
+            out.writeInt(page.getStatusCode());
+            out.writeLong(page.getResponseTimeMs());
+            writeString(page.getCharset() == null ? "" : page.getCharset());
+            Map<String, String> headers = page.getHeaders() == null ? Map.of() : page.getHeaders();
+            out.writeInt(headers.size());
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                writeString(header.getKey());
+                writeString(header.getValue());
+            }
+            out.writeInt(page.getBody().length);
+            out.write(page.getBody());
+            // Flush whole records so an interrupted recording leaves a readable archive
+            out.flush();
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            out.close();
+        }
+
+        private void writeString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package gov.usds.ecfr.service;
+
+import org.jsoup.Connection;
+import org.jsoup.Jsoup;
+
+import java.io.IOException;
+
+/**
+ * Fetches pages over the network with Jsoup.
+ * Jsoup throws for non-2xx responses, so only successful pages are returned.
+ */
+public class JsoupPageFetcher implements PageFetcher {
+
+    private static final int CONNECTION_TIMEOUT = 10000; // 10 seconds
+    private static final String USER_AGENT = "USDS Site Analysis Tool/1.0";
+
+    @Override
+    public FetchedPage fetch(String url) throws IOException {
+        long startTime = System.currentTimeMillis();
+        Connection.Response response = Jsoup.connect(url)
+                .userAgent(USER_AGENT)
+                .timeout(CONNECTION_TIMEOUT)
+                .execute();
+        // Jsoup reads the body lazily, so this covers connect, request and server think time only
+        long headersTime = System.currentTimeMillis() - startTime;
+        byte[] body = response.bodyAsBytes();
+        long responseTime = System.currentTimeMillis() - startTime;
+
+        return FetchedPage.builder()
+                .url(url)
+                .statusCode(response.statusCode())
+                .charset(response.charset())
+                .responseTimeMs(responseTime)
+                .headersTimeMs(headersTime)
+                .headers(response.headers())
+                .body(body)
+                .build();
+    }
+}
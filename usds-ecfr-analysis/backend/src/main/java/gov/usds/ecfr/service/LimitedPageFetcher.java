@@ -0,0 +1,65 @@
+package gov.usds.ecfr.service;
+
+import org.jsoup.HttpStatusException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+
+/**
+ * Holds an {@link AdaptiveConcurrencyLimiter} slot for the target host around each fetch
+ * and reports the outcome back so the host's limit can adapt.
+ *
+ * <p>The limiter is fed time-to-headers when the delegate measures it. Body download time
+ * grows with page size rather than server load, so a healthy host serving both small and
+ * large pages would otherwise look degraded.
+ */
+public class LimitedPageFetcher implements PageFetcher {
+
+    private final PageFetcher delegate;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final long acquireTimeoutMs;
+
+    public LimitedPageFetcher(PageFetcher delegate, AdaptiveConcurrencyLimiter limiter, long acquireTimeoutMs) {
+        this.delegate = delegate;
+        this.limiter = limiter;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+
+    @Override
+    public FetchedPage fetch(String url) throws IOException {
+        String host = PageFetcher.hostOf(url);
+        try {
+            if (!limiter.acquire(host, acquireTimeoutMs)) {
+                throw new ConcurrencyLimitExceededException(host, limiter.getLimit(host));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for a fetch slot for host " + host);
+        }
+
+        long startTime = System.currentTimeMillis();
+        try {
+            FetchedPage page = delegate.fetch(url);
+            long latency = page.getHeadersTimeMs() > 0
+                    ? page.getHeadersTimeMs()
+                    : System.currentTimeMillis() - startTime;
+            limiter.onSuccess(host, latency);
+            return page;
+        } catch (HttpStatusException e) {
+            if (e.getStatusCode() == 429 || e.getStatusCode() >= 500) {
+                limiter.onDropped(host);
+            } else {
+                limiter.onIgnored(host);
+            }
+            throw e;
+        } catch (SocketTimeoutException e) {
+            limiter.onDropped(host);
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            // Connection refused, DNS failures and bad URLs say nothing about the host's load
+            limiter.onIgnored(host);
+            throw e;
+        }
+    }
+}
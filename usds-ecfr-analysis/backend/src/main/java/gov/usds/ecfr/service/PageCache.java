@@ -0,0 +1,379 @@
+package gov.usds.ecfr.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Memory-bounded cache of fetched pages, keyed by URL and content hash.
+ * Identical bodies served under different URLs share one stored copy and one parsed document,
+ * so re-running the analyzers against a page costs neither a network round trip nor a reparse.
+ * Small bodies stay on the heap; large ones spill to direct buffers.
+ *
+ * <p>Parsed documents live on the heap and count against the heap budget at an estimated
+ * {@link #DOM_WEIGHT_FACTOR} times their body size. When over budget, the least recently used
+ * documents are dropped first (they can be rebuilt from the cached bytes), then whole pages.
+ */
+@Component
+@Slf4j
+public class PageCache {
+
+    private static final long DEFAULT_MAX_HEAP_BYTES = 64L * 1024 * 1024;
+    private static final long DEFAULT_MAX_OFF_HEAP_BYTES = 256L * 1024 * 1024;
+    private static final int DEFAULT_SPILL_THRESHOLD_BYTES = 256 * 1024;
+    private static final long DEFAULT_TTL_MILLIS = 3600_000L;
+    // Rough heap cost of a jsoup DOM relative to its source bytes
+    static final int DOM_WEIGHT_FACTOR = 8;
+
+    private final long maxHeapBytes;
+    private final long maxOffHeapBytes;
+    private final int spillThresholdBytes;
+    private final long ttlMillis;
+
+    // Access-ordered so iteration starts at the least recently used page
+    private final LinkedHashMap<String, CachedPage> pagesByUrl = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, PageBody> bodiesByHash = new HashMap<>();
+    private final LinkedHashMap<String, PageBody> parsedByHash = new LinkedHashMap<>(64, 0.75f, true);
+
+    private long heapBytes;
+    private long offHeapBytes;
+    private long parsedBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder reparses = new LongAdder();
+
+    public PageCache() {
+        this(DEFAULT_MAX_HEAP_BYTES, DEFAULT_MAX_OFF_HEAP_BYTES, DEFAULT_SPILL_THRESHOLD_BYTES, DEFAULT_TTL_MILLIS);
+    }
+
+    public PageCache(long maxHeapBytes, long maxOffHeapBytes, int spillThresholdBytes, long ttlMillis) {
+        this.maxHeapBytes = maxHeapBytes;
+        this.maxOffHeapBytes = maxOffHeapBytes;
+        this.spillThresholdBytes = spillThresholdBytes;
+        this.ttlMillis = ttlMillis;
+    }
+
+    @Autowired
+    public PageCache(@Value("${analysis.cache.max-heap-bytes:67108864}") long maxHeapBytes,
+                     @Value("${analysis.cache.max-off-heap-bytes:268435456}") long maxOffHeapBytes,
+                     @Value("${analysis.cache.spill-threshold-bytes:262144}") int spillThresholdBytes,
+                     @Value("${analysis.cache.ttl-seconds:3600}") long ttlSeconds,
+                     ObjectProvider<MeterRegistry> meterRegistry) {
+        this(maxHeapBytes, maxOffHeapBytes, spillThresholdBytes, ttlSeconds * 1000);
+        meterRegistry.ifAvailable(this::bindMetrics);
+    }
+
+    /**
+     * Returns the cached page for a URL, or null if it is absent or older than the TTL.
+     */
+    public CachedPage get(String url) {
+        synchronized (this) {
+            CachedPage page = pagesByUrl.get(url);
+            if (page != null && System.currentTimeMillis() - page.getFetchedAt() > ttlMillis) {
+                pagesByUrl.remove(url);
+                release(page.body);
+                page = null;
+            }
+            if (page != null) {
+                hits.increment();
+            } else {
+                misses.increment();
+            }
+            return page;
+        }
+    }
+
+    /**
+     * Stores a freshly fetched body, reusing an existing copy if the content hash is already cached.
+     */
+    public CachedPage put(String url, byte[] body, String charset, int statusCode, long responseTimeMs) {
+        String contentHash = hash(body);
+        synchronized (this) {
+            PageBody shared = bodiesByHash.get(contentHash);
+            if (shared == null) {
+                shared = new PageBody(contentHash, body, charset, body.length >= spillThresholdBytes);
+                bodiesByHash.put(contentHash, shared);
+                if (shared.offHeap != null) {
+                    offHeapBytes += shared.size;
+                } else {
+                    heapBytes += shared.size;
+                }
+            }
+            shared.refCount++;
+
+            CachedPage page = new CachedPage(url, statusCode, responseTimeMs, System.currentTimeMillis(), shared);
+            CachedPage previous = pagesByUrl.put(url, page);
+            if (previous != null) {
+                release(previous.body);
+            }
+            evictToBudget();
+            return page;
+        }
+    }
+
+    /**
+     * Runs a reader against the parsed document for a cached page, parsing from the stored
+     * bytes if needed. jsoup does not guarantee that concurrent reads of one document are safe,
+     * so readers of the same content are serialized; different pages are read in parallel.
+     * The reader must not modify the document or keep a reference to it after returning.
+     */
+    public <T> T withDocument(CachedPage page, Function<Document, T> reader) {
+        PageBody body = page.body;
+        synchronized (body) {
+            Document document = body.parsed;
+            if (document == null) {
+                if (body.parseCount++ > 0) {
+                    reparses.increment();
+                }
+                document = parse(body.bytes(), body.charset, page.getUrl());
+                retainParsed(body, document);
+            } else {
+                synchronized (this) {
+                    parsedByHash.get(body.contentHash); // mark as recently used
+                }
+            }
+            return reader.apply(document);
+        }
+    }
+
+    public synchronized void clear() {
+        parsedByHash.values().forEach(body -> body.parsed = null);
+        parsedByHash.clear();
+        pagesByUrl.clear();
+        bodiesByHash.clear();
+        heapBytes = 0;
+        offHeapBytes = 0;
+        parsedBytes = 0;
+    }
+
+    public synchronized int size() {
+        return pagesByUrl.size();
+    }
+
+    /**
+     * Returns the heap footprint: on-heap bodies plus the estimated weight of parsed documents.
+     */
+    public synchronized long getHeapBytes() {
+        return heapBytes + parsedBytes;
+    }
+
+    public synchronized long getParsedBytes() {
+        return parsedBytes;
+    }
+
+    public synchronized long getOffHeapBytes() {
+        return offHeapBytes;
+    }
+
+    public double hitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getReparses() {
+        return reparses.sum();
+    }
+
+    void bindMetrics(MeterRegistry registry) {
+        FunctionCounter.builder("analysis.page.cache.hits", this, PageCache::getHits).register(registry);
+        FunctionCounter.builder("analysis.page.cache.misses", this, PageCache::getMisses).register(registry);
+        FunctionCounter.builder("analysis.page.cache.evictions", this, PageCache::getEvictions).register(registry);
+        FunctionCounter.builder("analysis.page.cache.reparses", this, PageCache::getReparses).register(registry);
+        Gauge.builder("analysis.page.cache.hit.ratio", this, PageCache::hitRate).register(registry);
+        Gauge.builder("analysis.page.cache.size", this, PageCache::size).register(registry);
+        Gauge.builder("analysis.page.cache.heap.bytes", this, PageCache::getHeapBytes)
+                .baseUnit("bytes").register(registry);
+        Gauge.builder("analysis.page.cache.offheap.bytes", this, PageCache::getOffHeapBytes)
+                .baseUnit("bytes").register(registry);
+        Gauge.builder("analysis.page.cache.parsed.bytes", this, PageCache::getParsedBytes)
+                .baseUnit("bytes").register(registry);
+    }
+
+    static Document parse(byte[] body, String charset, String baseUri) {
+        try {
+            return Jsoup.parse(new ByteArrayInputStream(body), charset, baseUri);
+        } catch (IOException e) {
+            // Reading from a byte array cannot fail in practice
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Keeps a freshly parsed document if its body is still cached, charging its estimated weight.
+     * Called with the body's lock held.
+     */
+    private synchronized void retainParsed(PageBody body, Document document) {
+        if (bodiesByHash.get(body.contentHash) != body) {
+            return;
+        }
+        body.parsed = document;
+        parsedByHash.put(body.contentHash, body);
+        parsedBytes += body.parsedWeight();
+        evictToBudget();
+    }
+
+    private void dropParsed(PageBody body) {
+        if (parsedByHash.remove(body.contentHash) != null) {
+            body.parsed = null;
+            parsedBytes -= body.parsedWeight();
+        }
+    }
+
+    private void evictToBudget() {
+        Iterator<PageBody> parsedLru = parsedByHash.values().iterator();
+        while (heapBytes + parsedBytes > maxHeapBytes && parsedLru.hasNext()) {
+            PageBody body = parsedLru.next();
+            parsedLru.remove();
+            body.parsed = null;
+            parsedBytes -= body.parsedWeight();
+        }
+
+        // Only pages stored in a tier that is over budget are evicted; dropping the others frees nothing there
+        Iterator<CachedPage> lru = pagesByUrl.values().iterator();
+        while ((heapBytes > maxHeapBytes || offHeapBytes > maxOffHeapBytes) && lru.hasNext()) {
+            CachedPage page = lru.next();
+            boolean tierOverBudget = page.body.offHeap != null
+                    ? offHeapBytes > maxOffHeapBytes
+                    : heapBytes > maxHeapBytes;
+            if (!tierOverBudget) {
+                continue;
+            }
+            lru.remove();
+            release(page.body);
+            evictions.increment();
+            log.debug("Evicted {} from page cache", page.getUrl());
+        }
+    }
+
+    private void release(PageBody body) {
+        if (--body.refCount == 0) {
+            bodiesByHash.remove(body.contentHash);
+            dropParsed(body);
+            if (body.offHeap != null) {
+                offHeapBytes -= body.size;
+            } else {
+                heapBytes -= body.size;
+            }
+        }
+    }
+
+    private static String hash(byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * A URL's view of a cached body, along with what was observed when it was fetched.
+     */
+    public static final class CachedPage {
+        @Getter private final String url;
+        @Getter private final int statusCode;
+        @Getter private final long responseTimeMs;
+        @Getter private final long fetchedAt;
+        private final PageBody body;
+
+        private CachedPage(String url, int statusCode, long responseTimeMs, long fetchedAt, PageBody body) {
+            this.url = url;
+            this.statusCode = statusCode;
+            this.responseTimeMs = responseTimeMs;
+            this.fetchedAt = fetchedAt;
+            this.body = body;
+        }
+
+        public String getContentHash() {
+            return body.contentHash;
+        }
+
+        public int getBodySize() {
+            return body.size;
+        }
+
+        public byte[] getBodyBytes() {
+            return body.bytes();
+        }
+    }
+
+    /**
+     * Raw bytes for one distinct content hash, shared by every URL that served it.
+     */
+    private static final class PageBody {
+        private final String contentHash;
+        private final String charset;
+        private final int size;
+        private final byte[] heap;
+        private final ByteBuffer offHeap;
+        // Written under the cache lock, read under the body lock
+        private volatile Document parsed;
+        private int parseCount;
+        private int refCount;
+
+        private PageBody(String contentHash, byte[] body, String charset, boolean spill) {
+            this.contentHash = contentHash;
+            this.charset = charset;
+            this.size = body.length;
+            if (spill) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(body.length);
+                buffer.put(body).flip();
+                this.offHeap = buffer.asReadOnlyBuffer();
+                this.heap = null;
+            } else {
+                this.heap = body;
+                this.offHeap = null;
+            }
+        }
+
+        private long parsedWeight() {
+            return (long) size * DOM_WEIGHT_FACTOR;
+        }
+
+        private byte[] bytes() {
+            if (heap != null) {
+                return heap;
+            }
+            byte[] copy = new byte[size];
+            offHeap.duplicate().get(copy);
+            return copy;
+        }
+    }
+}
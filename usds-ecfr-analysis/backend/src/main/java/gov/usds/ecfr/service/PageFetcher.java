@@ -0,0 +1,27 @@
+package gov.usds.ecfr.service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Locale;
+
+/**
+ * Fetch stage of the analysis pipeline. Implementations may hit the network,
+ * record what they fetch, or replay previously recorded responses.
+ */
+public interface PageFetcher {
+
+    FetchedPage fetch(String url) throws IOException;
+
+    /**
+     * Returns the lower-cased host a URL would be fetched from, or an empty string if it has none.
+     * Per-host limits and crawl sharding both key on this.
+     */
+    static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host.toLowerCase(Locale.ROOT) : "";
+        } catch (IllegalArgumentException e) {
+            return "";
+        }
+    }
+}
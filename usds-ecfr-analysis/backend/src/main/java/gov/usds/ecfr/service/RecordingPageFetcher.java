@@ -0,0 +1,34 @@
+package gov.usds.ecfr.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Passes fetches through to a delegate and appends every response to an {@link HttpArchive}.
+ */
+@Slf4j
+public class RecordingPageFetcher implements PageFetcher, Closeable {
+
+    private final PageFetcher delegate;
+    private final HttpArchive.Writer writer;
+
+    public RecordingPageFetcher(PageFetcher delegate, HttpArchive.Writer writer) {
+        this.delegate = delegate;
+        this.writer = writer;
+    }
+
+    @Override
+    public FetchedPage fetch(String url) throws IOException {
+        FetchedPage page = delegate.fetch(url);
+        writer.write(page);
+        log.debug("Recorded {} ({} bytes)", url, page.getBody().length);
+        return page;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
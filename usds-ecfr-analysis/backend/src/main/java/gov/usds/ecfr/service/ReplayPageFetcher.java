@@ -0,0 +1,25 @@
+package gov.usds.ecfr.service;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+
+/**
+ * Serves pages from a recorded {@link HttpArchive} without touching the network.
+ */
+public class ReplayPageFetcher implements PageFetcher {
+
+    private final HttpArchive archive;
+
+    public ReplayPageFetcher(HttpArchive archive) {
+        this.archive = archive;
+    }
+
+    @Override
+    public FetchedPage fetch(String url) throws IOException {
+        FetchedPage page = archive.get(url);
+        if (page == null) {
+            throw new FileNotFoundException("URL not present in archive: " + url);
+        }
+        return page;
+    }
+}
@@ -1,12 +1,11 @@
 package gov.usds.ecfr.service;
 
 import gov.usds.ecfr.model.SiteAnalysisResult;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
@@ -20,12 +19,29 @@ import java.util.concurrent.CompletableFuture;
  * Performs comprehensive analysis including accessibility, performance, and compliance checks.
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class SiteAnalysisService {
 
-    private static final int CONNECTION_TIMEOUT = 10000; // 10 seconds
-    private static final String USER_AGENT = "USDS Site Analysis Tool/1.0";
+    private final PageFetcher pageFetcher;
+    private final PageCache pageCache;
+
+    public SiteAnalysisService() {
+        this(new JsoupPageFetcher(), new PageCache());
+    }
+
+    /**
+     * Creates a service that fetches and analyzes every page without caching, for batch runs
+     * where each page is analyzed once and hashing it for reuse is wasted work.
+     */
+    public SiteAnalysisService(PageFetcher pageFetcher) {
+        this(pageFetcher, null);
+    }
+
+    @Autowired
+    public SiteAnalysisService(PageFetcher pageFetcher, PageCache pageCache) {
+        this.pageFetcher = pageFetcher;
+        this.pageCache = pageCache;
+    }
 
     /**
      * Performs synchronous site analysis
@@ -33,37 +49,15 @@ public class SiteAnalysisService {
     public SiteAnalysisResult analyzeSite(String url) {
         log.info("Starting synchronous analysis for URL: {}", url);
         
-        long startTime = System.currentTimeMillis();
-        
         try {
-            // Fetch the webpage
-            Document document = Jsoup.connect(url)
-                    .userAgent(USER_AGENT)
-                    .timeout(CONNECTION_TIMEOUT)
-                    .get();
-            
-            long responseTime = System.currentTimeMillis() - startTime;
-            
-            // Perform various analyses
-            SiteAnalysisResult.AccessibilityMetrics accessibility = analyzeAccessibility(document);
-            SiteAnalysisResult.PerformanceMetrics performance = analyzePerformance(document, responseTime);
-            SiteAnalysisResult.ContentAnalysis content = analyzeContent(document);
-            SiteAnalysisResult.TechnicalAnalysis technical = analyzeTechnical(document, url);
-            SiteAnalysisResult.UsabilityAnalysis usability = analyzeUsability(document);
-            SiteAnalysisResult.GovernmentCompliance compliance = analyzeGovernmentCompliance(document);
-            
-            return SiteAnalysisResult.builder()
-                    .url(url)
-                    .analyzedAt(LocalDateTime.now())
-                    .responseTimeMs(responseTime)
-                    .statusCode(200) // Jsoup would throw exception if not successful
-                    .accessibility(accessibility)
-                    .performance(performance)
-                    .content(content)
-                    .technical(technical)
-                    .usability(usability)
-                    .compliance(compliance)
-                    .build();
+            if (pageCache == null) {
+                return analyzePage(pageFetcher.fetch(url));
+            }
+
+            // Fetch the webpage, or reuse the cached copy from an earlier run
+            PageCache.CachedPage page = fetchPage(url);
+            return pageCache.withDocument(page, document ->
+                    analyzeDocument(url, document, page.getResponseTimeMs(), page.getStatusCode()));
                     
         } catch (IOException e) {
             log.error("Error fetching URL {}: {}", url, e.getMessage());
@@ -71,6 +65,14 @@ public class SiteAnalysisService {
         }
     }
 
+    /**
+     * Analyzes an already fetched page without going through the page cache.
+     */
+    public SiteAnalysisResult analyzePage(FetchedPage page) {
+        Document document = PageCache.parse(page.getBody(), page.getCharset(), page.getUrl());
+        return analyzeDocument(page.getUrl(), document, page.getResponseTimeMs(), page.getStatusCode());
+    }
+
     /**
      * Performs asynchronous site analysis
      */
@@ -80,6 +82,44 @@ public class SiteAnalysisService {
         return CompletableFuture.completedFuture(analyzeSite(url));
     }
 
+    /**
+     * Returns the cached page for a URL, fetching and caching it on a miss.
+     */
+    private PageCache.CachedPage fetchPage(String url) throws IOException {
+        PageCache.CachedPage cached = pageCache.get(url);
+        if (cached != null) {
+            log.debug("Page cache hit for URL: {}", url);
+            return cached;
+        }
+        
+        FetchedPage fetched = pageFetcher.fetch(url);
+        return pageCache.put(url, fetched.getBody(), fetched.getCharset(),
+                fetched.getStatusCode(), fetched.getResponseTimeMs());
+    }
+
+    private SiteAnalysisResult analyzeDocument(String url, Document document, long responseTime, int statusCode) {
+        // Perform various analyses
+        SiteAnalysisResult.AccessibilityMetrics accessibility = analyzeAccessibility(document);
+        SiteAnalysisResult.PerformanceMetrics performance = analyzePerformance(document, responseTime);
+        SiteAnalysisResult.ContentAnalysis content = analyzeContent(document);
+        SiteAnalysisResult.TechnicalAnalysis technical = analyzeTechnical(document, url);
+        SiteAnalysisResult.UsabilityAnalysis usability = analyzeUsability(document);
+        SiteAnalysisResult.GovernmentCompliance compliance = analyzeGovernmentCompliance(document);
+        
+        return SiteAnalysisResult.builder()
+                .url(url)
+                .analyzedAt(LocalDateTime.now())
+                .responseTimeMs(responseTime)
+                .statusCode(statusCode)
+                .accessibility(accessibility)
+                .performance(performance)
+                .content(content)
+                .technical(technical)
+                .usability(usability)
+                .compliance(compliance)
+                .build();
+    }
+
     private SiteAnalysisResult.AccessibilityMetrics analyzeAccessibility(Document document) {
         List<String> issues = new ArrayList<>();
         int score = 100;
@@ -0,0 +1,65 @@
+package gov.usds.ecfr.batch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gov.usds.ecfr.service.FetchedPage;
+import gov.usds.ecfr.service.HttpArchive;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Replays a recorded archive through the parallel batch runner
+ */
+public class ArchiveRunnerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testReplay_TwoThreads_ShouldWriteOneResultPerPage() throws IOException, InterruptedException {
+        Path archivePath = tempDir.resolve("pages.archive");
+        List<String> urls = new ArrayList<>();
+        try (HttpArchive.Writer writer = HttpArchive.writer(archivePath)) {
+            for (int i = 0; i < 10; i++) {
+                String url = "https://agency" + i + ".gov/";
+                urls.add(url);
+                writer.write(FetchedPage.builder()
+                        .url(url)
+                        .statusCode(200)
+                        .charset("UTF-8")
+                        .responseTimeMs(10 + i)
+                        .headers(Map.of())
+                        .body(("<html><head><title>Agency " + i + "</title></head><body><h1>Home</h1></body></html>")
+                                .getBytes(StandardCharsets.UTF_8))
+                        .build());
+            }
+        }
+        Path output = tempDir.resolve("results.jsonl");
+
+        int failures = ArchiveRunner.replay(HttpArchive.open(archivePath), 2, output);
+
+        assertEquals(0, failures);
+        List<String> lines = Files.readAllLines(output, StandardCharsets.UTF_8);
+        assertEquals(urls.size(), lines.size(), "Expected one JSON line per archived page");
+        ObjectMapper mapper = new ObjectMapper();
+        Set<String> analyzed = new TreeSet<>();
+        for (String line : lines) {
+            JsonNode result = mapper.readTree(line);
+            assertEquals(200, result.get("statusCode").asInt());
+            analyzed.add(result.get("url").asText());
+        }
+        assertEquals(new TreeSet<>(urls), analyzed);
+    }
+}
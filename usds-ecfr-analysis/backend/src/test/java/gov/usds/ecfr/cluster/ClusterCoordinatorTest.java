@@ -0,0 +1,320 @@
+package gov.usds.ecfr.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gov.usds.ecfr.model.CrawlTask;
+import gov.usds.ecfr.service.ConcurrencyLimitExceededException;
+import gov.usds.ecfr.service.FetchedPage;
+import gov.usds.ecfr.service.PageCache;
+import gov.usds.ecfr.service.PageFetcher;
+import gov.usds.ecfr.service.SiteAnalysisService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs several coordinators against one shared store to exercise sharding and rebalancing.
+ * Subclasses supply the store implementation.
+ */
+public abstract class ClusterCoordinatorTest {
+
+    private static final long TIMEOUT_MS = 15000;
+
+    private final List<ClusterCoordinator> nodes = new ArrayList<>();
+    private final List<String> hosts = IntStream.range(0, 200)
+            .mapToObj(i -> "agency" + i + ".gov")
+            .collect(Collectors.toList());
+
+    private ClusterStore store;
+    private SiteAnalysisService service;
+    // Fetches block until this opens, to simulate slow analysis
+    private volatile CountDownLatch gate = new CountDownLatch(0);
+    // Fetches fail with local backpressure while set
+    private volatile boolean saturated;
+
+    protected abstract ClusterStore createStore();
+
+    protected void closeStore(ClusterStore store) {
+    }
+
+    @BeforeEach
+    void setUp() {
+        store = createStore();
+        service = new SiteAnalysisService(url -> {
+            awaitGate();
+            if (saturated) {
+                throw new ConcurrencyLimitExceededException(PageFetcher.hostOf(url), 1);
+            }
+            return FetchedPage.builder()
+                    .url(url)
+                    .statusCode(200)
+                    .charset("UTF-8")
+                    .responseTimeMs(10)
+                    .headers(Map.of())
+                    .body(("<html><head><title>" + url + "</title></head><body><h1>Page</h1></body></html>")
+                            .getBytes(StandardCharsets.UTF_8))
+                    .build();
+        }, new PageCache());
+    }
+
+    @AfterEach
+    void tearDown() {
+        gate.countDown();
+        nodes.forEach(ClusterCoordinator::leave);
+        closeStore(store);
+    }
+
+    private void awaitGate() throws InterruptedIOException {
+        try {
+            gate.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    private ClusterCoordinator node(String id) {
+        return node(id, 50);
+    }
+
+    private ClusterCoordinator node(String id, int batchSize) {
+        return node(id, batchSize, TIMEOUT_MS);
+    }
+
+    private ClusterCoordinator node(String id, int batchSize, long timeoutMs) {
+        ClusterCoordinator node = new ClusterCoordinator(id, store, service,
+                new ObjectMapper().findAndRegisterModules(), timeoutMs, batchSize, 2, Clock.systemUTC());
+        nodes.add(node);
+        return node;
+    }
+
+    private static void awaitIdle(ClusterCoordinator... coordinators) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        for (ClusterCoordinator coordinator : coordinators) {
+            while (coordinator.getInFlight() > 0) {
+                assertTrue(System.currentTimeMillis() < deadline, "Workers did not finish in time");
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    private static void heartbeatAll(long now, ClusterCoordinator... coordinators) {
+        for (ClusterCoordinator coordinator : coordinators) {
+            coordinator.heartbeat(now);
+        }
+        for (ClusterCoordinator coordinator : coordinators) {
+            coordinator.refreshMembership(now);
+        }
+    }
+
+    private Map<String, String> owners(ClusterCoordinator coordinator) {
+        Map<String, String> owners = new HashMap<>();
+        hosts.forEach(host -> owners.put(host, coordinator.ownerOfHost(host)));
+        return owners;
+    }
+
+    @Test
+    void testOwnership_AllNodesAgree_AndShardsAreSpread() {
+        ClusterCoordinator a = node("node-a");
+        ClusterCoordinator b = node("node-b");
+        ClusterCoordinator c = node("node-c");
+        heartbeatAll(0, a, b, c);
+
+        assertEquals(List.of("node-a", "node-b", "node-c"), a.getMembers());
+        assertEquals(owners(a), owners(b));
+        assertEquals(owners(a), owners(c));
+
+        int total = a.ownedShards().size() + b.ownedShards().size() + c.ownedShards().size();
+        assertEquals(ClusterCoordinator.SHARD_COUNT, total, "Every shard should have exactly one owner");
+        for (ClusterCoordinator node : List.of(a, b, c)) {
+            assertFalse(node.ownedShards().isEmpty(), node.getNodeId() + " should own some shards");
+        }
+    }
+
+    @Test
+    void testRebalance_NodeLeaves_OnlyItsHostsMove() {
+        ClusterCoordinator a = node("node-a");
+        ClusterCoordinator b = node("node-b");
+        ClusterCoordinator c = node("node-c");
+        heartbeatAll(0, a, b, c);
+        Map<String, String> before = owners(a);
+
+        c.leave();
+        heartbeatAll(1000, a, b);
+        Map<String, String> after = owners(a);
+
+        assertEquals(List.of("node-a", "node-b"), a.getMembers());
+        for (String host : hosts) {
+            if (!"node-c".equals(before.get(host))) {
+                assertEquals(before.get(host), after.get(host), "Host " + host + " should not move");
+            } else {
+                assertNotEquals("node-c", after.get(host));
+            }
+        }
+    }
+
+    @Test
+    void testRebalance_MissedHeartbeats_NodeExpires() {
+        ClusterCoordinator a = node("node-a");
+        ClusterCoordinator b = node("node-b");
+        heartbeatAll(0, a, b);
+
+        a.heartbeat(TIMEOUT_MS + 1);
+
+        assertEquals(List.of("node-a"), a.getMembers());
+        assertEquals(ClusterCoordinator.SHARD_COUNT, a.ownedShards().size());
+    }
+
+    @Test
+    void testPoll_EachTaskAnalyzedByHostOwner() throws InterruptedException {
+        ClusterCoordinator a = node("node-a");
+        ClusterCoordinator b = node("node-b");
+        heartbeatAll(0, a, b);
+
+        List<String> urls = hosts.subList(0, 40).stream()
+                .map(host -> "https://" + host + "/regulations")
+                .collect(Collectors.toList());
+        a.submit(urls);
+
+        int processed = 0;
+        for (int round = 0; round < 5; round++) {
+            processed += a.poll(round) + b.poll(round);
+        }
+        awaitIdle(a, b);
+
+        assertEquals(urls.size(), processed);
+        for (String url : urls) {
+            CrawlTask task = store.find(url);
+            assertEquals(CrawlTask.Status.DONE, task.getStatus());
+            assertEquals(a.ownerOfHost(PageFetcher.hostOf(url)), task.getOwner());
+            assertTrue(task.getResult().contains("\"statusCode\":200"));
+        }
+    }
+
+    @Test
+    void testPoll_TaskClaimedByDeadNode_IsReclaimed() throws InterruptedException {
+        String url = "https://www.ecfr.gov/current/title-12";
+        store.heartbeat("node-dead", 0);
+        store.enqueue(url, "www.ecfr.gov", ClusterCoordinator.shardOf("www.ecfr.gov"), 0);
+        assertTrue(store.claim(store.find(url), "node-dead", 0));
+
+        ClusterCoordinator a = node("node-a");
+        a.heartbeat(TIMEOUT_MS + 1);
+
+        assertEquals(1, a.poll(TIMEOUT_MS + 1));
+        awaitIdle(a);
+        CrawlTask task = store.find(url);
+        assertEquals(CrawlTask.Status.DONE, task.getStatus());
+        assertEquals("node-a", task.getOwner());
+    }
+
+    @Test
+    void testPoll_AnalysisSlowerThanHeartbeatTimeout_KeepsHeartbeatingAndOwnership() throws InterruptedException {
+        String url = "https://www.ecfr.gov/current/title-12";
+        String host = PageFetcher.hostOf(url);
+        ClusterCoordinator a = node("node-a");
+        ClusterCoordinator b = node("node-b");
+        heartbeatAll(0, a, b);
+        ClusterCoordinator owner = a.ownerOfHost(host).equals("node-a") ? a : b;
+        ClusterCoordinator peer = owner == a ? b : a;
+        owner.submit(List.of(url));
+
+        gate = new CountDownLatch(1);
+        int claimed = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> owner.poll(0),
+                "Poll must not wait for analysis to finish");
+        assertEquals(1, claimed);
+        assertEquals(1, owner.getInFlight());
+
+        // Analysis is still running past the heartbeat timeout, yet the owner keeps heartbeating
+        long later = 2 * TIMEOUT_MS;
+        heartbeatAll(later, owner, peer);
+        assertEquals(List.of("node-a", "node-b"), peer.getMembers());
+        assertEquals(0, peer.poll(later), "Peer must not reclaim a task from a live owner");
+        assertEquals(owner.getNodeId(), store.find(url).getOwner());
+
+        gate.countDown();
+        awaitIdle(owner);
+        CrawlTask task = store.find(url);
+        assertEquals(CrawlTask.Status.DONE, task.getStatus());
+        assertEquals(owner.getNodeId(), task.getOwner());
+    }
+
+    @Test
+    void testLeave_TaskStillRunning_IsReclaimedByPeer() throws InterruptedException {
+        String url = "https://www.ecfr.gov/current/title-12";
+        // Short heartbeat timeout so leave() gives up on the running task quickly
+        ClusterCoordinator a = node("node-a", 50, 200);
+        a.heartbeat(0);
+        a.submit(List.of(url));
+
+        gate = new CountDownLatch(1);
+        assertEquals(1, a.poll(0));
+        a.leave();
+
+        CrawlTask task = store.find(url);
+        assertEquals(CrawlTask.Status.CLAIMED, task.getStatus(), "Interrupted task must not be marked failed");
+        assertEquals("node-a", task.getOwner());
+
+        gate.countDown();
+        ClusterCoordinator b = node("node-b");
+        b.heartbeat(1);
+        assertEquals(1, b.poll(1));
+        awaitIdle(b);
+        task = store.find(url);
+        assertEquals(CrawlTask.Status.DONE, task.getStatus());
+        assertEquals("node-b", task.getOwner());
+    }
+
+    @Test
+    void testPoll_HostSaturated_ShouldRequeueInsteadOfFailing() throws InterruptedException {
+        String url = "https://www.ecfr.gov/current/title-12";
+        ClusterCoordinator a = node("node-a");
+        a.heartbeat(0);
+        a.submit(List.of(url));
+
+        saturated = true;
+        assertEquals(1, a.poll(0));
+        awaitIdle(a);
+        CrawlTask task = store.find(url);
+        assertEquals(CrawlTask.Status.PENDING, task.getStatus(), "Backpressure must not fail the task");
+        assertNull(task.getOwner());
+
+        saturated = false;
+        assertEquals(1, a.poll(1));
+        awaitIdle(a);
+        assertEquals(CrawlTask.Status.DONE, store.find(url).getStatus());
+    }
+
+    @Test
+    void testPoll_WorkersBusy_ShouldNotClaimBeyondBatchSize() throws InterruptedException {
+        ClusterCoordinator a = node("node-a", 2);
+        a.heartbeat(0);
+        List<String> urls = hosts.subList(0, 3).stream()
+                .map(host -> "https://" + host + "/")
+                .collect(Collectors.toList());
+        a.submit(urls);
+
+        gate = new CountDownLatch(1);
+        assertEquals(2, a.poll(0));
+        assertEquals(0, a.poll(1), "No capacity while earlier tasks are unfinished");
+
+        gate.countDown();
+        awaitIdle(a);
+        assertEquals(1, a.poll(2));
+        awaitIdle(a);
+        assertEquals(3L, store.countByStatus().get(CrawlTask.Status.DONE));
+    }
+}
@@ -0,0 +1,12 @@
+package gov.usds.ecfr.cluster;
+
+/**
+ * Cluster coordinator scenarios against the in-process store
+ */
+public class InMemoryClusterCoordinatorTest extends ClusterCoordinatorTest {
+
+    @Override
+    protected ClusterStore createStore() {
+        return new InMemoryClusterStore();
+    }
+}
@@ -0,0 +1,29 @@
+package gov.usds.ecfr.cluster;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+/**
+ * Cluster coordinator scenarios against the JDBC store on a fresh embedded H2 database,
+ * which exercises the claim and reclaim SQL
+ */
+public class JdbcClusterCoordinatorTest extends ClusterCoordinatorTest {
+
+    private EmbeddedDatabase database;
+
+    @Override
+    protected ClusterStore createStore() {
+        database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2)
+                .build();
+        return new JdbcClusterStore(new JdbcTemplate(database));
+    }
+
+    @Override
+    protected void closeStore(ClusterStore store) {
+        database.shutdown();
+    }
+}
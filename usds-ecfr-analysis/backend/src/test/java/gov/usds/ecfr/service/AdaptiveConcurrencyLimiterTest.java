@@ -0,0 +1,202 @@
+package gov.usds.ecfr.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jsoup.HttpStatusException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for per-host adaptive concurrency limits
+ */
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final String HOST = "www.ecfr.gov";
+
+    @Test
+    void testAcquire_AtLimit_ShouldTimeOut() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10);
+
+        assertTrue(limiter.acquire(HOST, 0));
+        assertTrue(limiter.acquire(HOST, 0));
+        assertFalse(limiter.acquire(HOST, 10), "Third fetch should wait for a free slot");
+        assertTrue(limiter.acquire("www.usa.gov", 0), "Other hosts should be unaffected");
+
+        limiter.onIgnored(HOST);
+        assertTrue(limiter.acquire(HOST, 0));
+        assertEquals(2, limiter.getInFlight(HOST));
+    }
+
+    @Test
+    void testOnSuccess_SteadyLatency_ShouldGrowUpToMax() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 6);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.acquire(HOST, 0));
+            limiter.onSuccess(HOST, 100);
+        }
+
+        assertEquals(6, limiter.getLimit(HOST));
+        assertEquals(0, limiter.getInFlight(HOST));
+    }
+
+    @Test
+    void testOnDropped_ShouldHalveDownToMin() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 1, 16);
+
+        limiter.acquire(HOST, 0);
+        limiter.onDropped(HOST);
+        assertEquals(4, limiter.getLimit(HOST));
+
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire(HOST, 0);
+            limiter.onDropped(HOST);
+        }
+        assertEquals(1, limiter.getLimit(HOST));
+    }
+
+    @Test
+    void testOnSuccess_LatencySpike_ShouldShrink() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 1, 8);
+        for (int i = 0; i < 20; i++) {
+            limiter.acquire(HOST, 0);
+            limiter.onSuccess(HOST, 100);
+        }
+        assertEquals(8, limiter.getLimit(HOST));
+
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire(HOST, 0);
+            limiter.onSuccess(HOST, 2000);
+        }
+        assertTrue(limiter.getLimit(HOST) < 8, "Limit should back off when latency degrades");
+    }
+
+    @Test
+    void testOnSuccess_SustainedLatency_ShouldStayLow() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 1, 32);
+        for (int i = 0; i < 20; i++) {
+            limiter.acquire(HOST, 0);
+            limiter.onSuccess(HOST, 100);
+        }
+        int warmLimit = limiter.getLimit(HOST);
+
+        for (int i = 0; i < 200; i++) {
+            limiter.acquire(HOST, 0);
+            limiter.onSuccess(HOST, 2000);
+            assertTrue(limiter.getLimit(HOST) <= warmLimit, "Limit must not climb while the origin stays slow");
+        }
+        assertEquals(1, limiter.getLimit(HOST), "A degraded origin should keep the minimum limit");
+    }
+
+    @Test
+    void testAcquire_AfterIdleTimeout_ShouldForgetIdleHostsAndGauges() throws InterruptedException {
+        AtomicLong now = new AtomicLong();
+        MeterRegistry registry = new SimpleMeterRegistry();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 8, 1000, now::get, registry);
+
+        limiter.acquire(HOST, 0);
+        limiter.onSuccess(HOST, 100);
+        limiter.acquire("busy.gov", 0);
+        assertNotNull(registry.find("analysis.fetch.concurrency.limit").tag("host", HOST).gauge());
+
+        now.set(1000);
+        limiter.acquire("www.usa.gov", 0);
+
+        assertFalse(limiter.limits().containsKey(HOST), "Idle host should be forgotten");
+        assertNull(registry.find("analysis.fetch.concurrency.limit").tag("host", HOST).gauge());
+        assertNull(registry.find("analysis.fetch.inflight").tag("host", HOST).gauge());
+        assertTrue(limiter.limits().containsKey("busy.gov"), "Hosts with fetches in flight are kept");
+        assertEquals(1, limiter.getInFlight("busy.gov"));
+
+        assertTrue(limiter.acquire(HOST, 0), "A forgotten host starts over at the initial limit");
+        assertEquals(4, limiter.getLimit(HOST));
+    }
+
+    @Test
+    void testOnSuccess_JitteringLatency_ShouldStayAboveMin() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 8);
+        long[] latencies = {40, 75, 55, 70, 45, 60};
+
+        for (int i = 0; i < 120; i++) {
+            assertTrue(limiter.acquire(HOST, 0));
+            limiter.onSuccess(HOST, latencies[i % latencies.length]);
+        }
+
+        assertEquals(8, limiter.getLimit(HOST), "Normal jitter on a healthy host should not shrink the limit");
+    }
+
+    @Test
+    void testLimitedPageFetcher_MixedPageSizes_ShouldStayAboveMin() throws IOException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 8);
+        String url = "https://" + HOST + "/";
+        AtomicLong requests = new AtomicLong();
+
+        // Every other page is large and slow to download, but headers arrive equally fast
+        PageFetcher mixed = new LimitedPageFetcher(u -> {
+            boolean large = requests.incrementAndGet() % 2 == 0;
+            if (large) {
+                try {
+                    Thread.sleep(25);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return FetchedPage.builder()
+                    .url(u)
+                    .statusCode(200)
+                    .charset("UTF-8")
+                    .responseTimeMs(large ? 25 : 1)
+                    .headersTimeMs(5)
+                    .body(new byte[large ? 512 * 1024 : 1024])
+                    .build();
+        }, limiter, 0);
+
+        for (int i = 0; i < 40; i++) {
+            mixed.fetch(url);
+        }
+
+        assertTrue(limiter.getLimit(HOST) > 1, "A healthy host serving mixed page sizes should keep its workers");
+        assertEquals(0, limiter.getInFlight(HOST));
+    }
+
+    @Test
+    void testLimitedPageFetcher_NoFreeSlot_ShouldSignalBackpressure() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1);
+        assertTrue(limiter.acquire(HOST, 0));
+
+        PageFetcher fetcher = new LimitedPageFetcher(u -> fail("Delegate must not be called"), limiter, 10);
+        ConcurrencyLimitExceededException e = assertThrows(ConcurrencyLimitExceededException.class,
+                () -> fetcher.fetch("https://" + HOST + "/"));
+        assertEquals(HOST, e.getHost());
+    }
+
+    @Test
+    void testLimitedPageFetcher_ServerErrorsAndTimeouts_ShouldBackOff() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 1, 16);
+        String url = "https://" + HOST + "/";
+
+        PageFetcher unavailable = new LimitedPageFetcher(u -> {
+            throw new HttpStatusException("Service Unavailable", 503, u);
+        }, limiter, 0);
+        assertThrows(IOException.class, () -> unavailable.fetch(url));
+        assertEquals(4, limiter.getLimit(HOST));
+
+        PageFetcher notFound = new LimitedPageFetcher(u -> {
+            throw new HttpStatusException("Not Found", 404, u);
+        }, limiter, 0);
+        assertThrows(IOException.class, () -> notFound.fetch(url));
+        assertEquals(4, limiter.getLimit(HOST), "A 404 says nothing about load");
+
+        PageFetcher slow = new LimitedPageFetcher(u -> {
+            throw new SocketTimeoutException("Read timed out");
+        }, limiter, 0);
+        assertThrows(IOException.class, () -> slow.fetch(url));
+        assertEquals(2, limiter.getLimit(HOST));
+        assertEquals(0, limiter.getInFlight(HOST));
+    }
+}
@@ -0,0 +1,155 @@
+package gov.usds.ecfr.service;
+
+import gov.usds.ecfr.model.SiteAnalysisResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Deterministic analysis tests that replay recorded pages instead of hitting the network
+ */
+public class OfflineReplayTest {
+
+    private static final String ECFR_URL = "https://www.ecfr.gov/current/title-12";
+    private static final String BARE_URL = "https://example.gov/";
+
+    private static final String ECFR_PAGE = """
+            <!DOCTYPE html>
+            <html lang="en"><head><title>Title 12 - Banks and Banking</title>
+            <meta name="description" content="eCFR Title 12">
+            <meta name="viewport" content="width=device-width, initial-scale=1">
+            </head><body>
+            <a href="#main">Skip to main content</a>
+            <nav><a href="/titles">Titles</a></nav>
+            <h1>Title 12</h1><h2>Part 1</h2>
+            <img src="seal.png" alt="Seal"><img src="banner.png">
+            <a href="/privacy">Privacy Policy</a>
+            <p>Section 508 accessibility statement. Contact us. FOIA requests.</p>
+            </body></html>
+            """;
+
+    private static final String BARE_PAGE = "<html><head><title>Bare</title></head><body><p>Hello</p></body></html>";
+
+    @TempDir
+    Path tempDir;
+
+    private Path archivePath;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        archivePath = tempDir.resolve("pages.archive");
+        try (HttpArchive.Writer writer = HttpArchive.writer(archivePath)) {
+            writer.write(page(ECFR_URL, ECFR_PAGE, 123));
+            writer.write(page(BARE_URL, BARE_PAGE, 45));
+        }
+    }
+
+    private static FetchedPage page(String url, String html, long responseTimeMs) {
+        return FetchedPage.builder()
+                .url(url)
+                .statusCode(200)
+                .charset("UTF-8")
+                .responseTimeMs(responseTimeMs)
+                .headers(Map.of("Content-Type", "text/html; charset=UTF-8"))
+                .body(html.getBytes(StandardCharsets.UTF_8))
+                .build();
+    }
+
+    private SiteAnalysisService replayService() throws IOException {
+        return new SiteAnalysisService(new ReplayPageFetcher(HttpArchive.open(archivePath)), new PageCache());
+    }
+
+    @Test
+    void testArchive_RoundTrip() throws IOException {
+        HttpArchive archive = HttpArchive.open(archivePath);
+
+        assertEquals(List.of(ECFR_URL, BARE_URL), archive.urls());
+        FetchedPage replayed = archive.get(ECFR_URL);
+        assertEquals(200, replayed.getStatusCode());
+        assertEquals(123, replayed.getResponseTimeMs());
+        assertEquals("UTF-8", replayed.getCharset());
+        assertEquals("text/html; charset=UTF-8", replayed.getHeaders().get("Content-Type"));
+        assertEquals(ECFR_PAGE, new String(replayed.getBody(), StandardCharsets.UTF_8));
+        assertNull(archive.get("https://not-recorded.gov/"));
+    }
+
+    @Test
+    void testArchive_RecordedTwice_ShouldReplayLatest() throws IOException {
+        try (HttpArchive.Writer writer = HttpArchive.writer(archivePath)) {
+            writer.write(page(BARE_URL, BARE_PAGE.replace("Bare", "Updated"), 50));
+        }
+        HttpArchive archive = HttpArchive.open(archivePath);
+
+        assertEquals(2, archive.size());
+        assertEquals(50, archive.get(BARE_URL).getResponseTimeMs());
+    }
+
+    @Test
+    void testArchive_TruncatedTail_ShouldKeepCompleteRecords() throws IOException {
+        Files.write(archivePath, new byte[]{0, 0, 0, 40, 'h', 't'}, StandardOpenOption.APPEND);
+        HttpArchive archive = HttpArchive.open(archivePath);
+
+        assertEquals(2, archive.size());
+        assertNotNull(archive.get(BARE_URL));
+    }
+
+    @Test
+    void testAnalyzeSite_Replay_ShouldProduceExpectedMetrics() throws IOException {
+        SiteAnalysisResult result = replayService().analyzeSite(ECFR_URL);
+
+        assertEquals(ECFR_URL, result.getUrl());
+        assertEquals(200, result.getStatusCode());
+        assertEquals(123L, result.getResponseTimeMs());
+
+        assertEquals("Title 12 - Banks and Banking", result.getContent().getTitle());
+        assertEquals("eCFR Title 12", result.getContent().getDescription());
+        assertEquals(2, result.getContent().getHeadingCount());
+        assertEquals(List.of("en"), result.getContent().getLanguages());
+
+        assertEquals(2, result.getPerformance().getImageCount());
+        assertEquals(1, result.getAccessibility().getDetails().get("imagesWithoutAlt"));
+
+        assertTrue(result.getUsability().getMobileResponsive());
+        assertTrue(result.getUsability().getHasNavigation());
+        assertTrue(result.getUsability().getHasSkipLinks());
+
+        assertEquals(100, result.getCompliance().getComplianceScore());
+        assertTrue(result.getCompliance().getRecommendations().isEmpty());
+    }
+
+    @Test
+    void testAnalyzeSite_Replay_ShouldBeDeterministic() throws IOException {
+        SiteAnalysisResult first = replayService().analyzeSite(BARE_URL);
+        SiteAnalysisResult second = replayService().analyzeSite(BARE_URL);
+        second.setAnalyzedAt(first.getAnalyzedAt());
+
+        assertEquals(first, second);
+    }
+
+    @Test
+    void testAnalyzeSite_Uncached_ShouldMatchCachedAnalysis() throws IOException {
+        SiteAnalysisResult cached = replayService().analyzeSite(ECFR_URL);
+        SiteAnalysisResult uncached = new SiteAnalysisService(new ReplayPageFetcher(HttpArchive.open(archivePath)))
+                .analyzeSite(ECFR_URL);
+        uncached.setAnalyzedAt(cached.getAnalyzedAt());
+
+        assertEquals(cached, uncached);
+    }
+
+    @Test
+    void testAnalyzeSite_NotRecorded_ShouldFail() throws IOException {
+        SiteAnalysisService service = replayService();
+
+        assertThrows(RuntimeException.class, () -> service.analyzeSite("https://not-recorded.gov/"));
+    }
+}
@@ -0,0 +1,142 @@
+package gov.usds.ecfr.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PageCache sharing, eviction and spill behavior
+ */
+public class PageCacheTest {
+
+    private static final String PAGE = "<html><head><title>eCFR</title></head><body><h1>Title 1</h1></body></html>";
+
+    private static byte[] body(String html) {
+        return html.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testGet_AfterPut_ShouldHit() {
+        PageCache cache = new PageCache();
+        assertNull(cache.get("https://www.ecfr.gov/"));
+
+        cache.put("https://www.ecfr.gov/", body(PAGE), "UTF-8", 200, 42);
+        PageCache.CachedPage page = cache.get("https://www.ecfr.gov/");
+
+        assertNotNull(page);
+        assertEquals(42, page.getResponseTimeMs());
+        assertEquals("eCFR", cache.withDocument(page, Document::title));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.5, cache.hitRate());
+    }
+
+    @Test
+    void testPut_IdenticalContent_ShouldShareBodyAndDocument() {
+        PageCache cache = new PageCache();
+        PageCache.CachedPage first = cache.put("https://www.ecfr.gov/", body(PAGE), "UTF-8", 200, 10);
+        PageCache.CachedPage second = cache.put("https://www.ecfr.gov/index.html", body(PAGE), "UTF-8", 200, 12);
+
+        assertEquals(first.getContentHash(), second.getContentHash());
+        assertEquals(PAGE.length(), cache.getHeapBytes(), "Identical bodies should be stored once");
+
+        Document document = cache.withDocument(first, d -> d);
+        assertSame(document, cache.withDocument(second, d -> d), "Parsed document should be shared by content hash");
+        assertEquals(0, cache.getReparses());
+        assertEquals((long) PAGE.length() * PageCache.DOM_WEIGHT_FACTOR, cache.getParsedBytes(),
+                "Shared document should be charged once");
+    }
+
+    @Test
+    void testWithDocument_OverBudget_ShouldDropDocumentsBeforePages() {
+        int size = body(PAGE + "a").length;
+        long budget = 2L * size + (long) size * PageCache.DOM_WEIGHT_FACTOR;
+        PageCache cache = new PageCache(budget, 0, Integer.MAX_VALUE, 60_000);
+
+        PageCache.CachedPage a = cache.put("https://a.gov/", body(PAGE + "a"), "UTF-8", 200, 1);
+        PageCache.CachedPage b = cache.put("https://b.gov/", body(PAGE + "b"), "UTF-8", 200, 1);
+        cache.withDocument(a, Document::title);
+        assertEquals(budget, cache.getHeapBytes());
+
+        cache.withDocument(b, Document::title);
+        assertEquals((long) size * PageCache.DOM_WEIGHT_FACTOR, cache.getParsedBytes(),
+                "Only one parsed document should fit alongside both bodies");
+        assertTrue(cache.getHeapBytes() <= budget);
+        assertEquals(2, cache.size(), "Pages should survive while documents can be dropped");
+
+        cache.withDocument(a, Document::title);
+        assertEquals(1, cache.getReparses(), "Dropped document should be rebuilt from cached bytes");
+    }
+
+    @Test
+    void testPut_OverBudget_ShouldEvictLeastRecentlyUsed() {
+        int size = body(PAGE + "a").length;
+        PageCache cache = new PageCache(size * 2L, 0, Integer.MAX_VALUE, 60_000);
+
+        cache.put("https://a.gov/", body(PAGE + "a"), "UTF-8", 200, 1);
+        cache.put("https://b.gov/", body(PAGE + "b"), "UTF-8", 200, 1);
+        cache.get("https://a.gov/");
+        cache.put("https://c.gov/", body(PAGE + "c"), "UTF-8", 200, 1);
+
+        assertNotNull(cache.get("https://a.gov/"));
+        assertNull(cache.get("https://b.gov/"), "Least recently used page should be evicted");
+        assertEquals(1, cache.getEvictions());
+        assertTrue(cache.getHeapBytes() <= size * 2L);
+    }
+
+    @Test
+    void testPut_HeapOverBudget_ShouldKeepOffHeapPages() {
+        int size = body(PAGE + "a").length;
+        String large = PAGE.repeat(4);
+        PageCache cache = new PageCache(size * 2L, 1024 * 1024, 200, 60_000);
+
+        cache.put("https://large.gov/", body(large), "UTF-8", 200, 1);
+        cache.put("https://a.gov/", body(PAGE + "a"), "UTF-8", 200, 1);
+        cache.put("https://b.gov/", body(PAGE + "b"), "UTF-8", 200, 1);
+        cache.put("https://c.gov/", body(PAGE + "c"), "UTF-8", 200, 1);
+
+        assertNotNull(cache.get("https://large.gov/"), "Off-heap page frees no heap and should be kept");
+        assertNull(cache.get("https://a.gov/"), "Least recently used heap page should be evicted");
+        assertEquals(1, cache.getEvictions());
+        assertEquals(large.length(), cache.getOffHeapBytes());
+    }
+
+    @Test
+    void testBindMetrics_ShouldRegisterCountsAsCounters() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        PageCache cache = new PageCache();
+        cache.bindMetrics(registry);
+
+        cache.get("https://www.ecfr.gov/");
+        cache.put("https://www.ecfr.gov/", body(PAGE), "UTF-8", 200, 1);
+        cache.get("https://www.ecfr.gov/");
+
+        assertEquals(1.0, registry.get("analysis.page.cache.hits").functionCounter().count());
+        assertEquals(1.0, registry.get("analysis.page.cache.misses").functionCounter().count());
+        assertEquals(0.5, registry.get("analysis.page.cache.hit.ratio").gauge().value());
+    }
+
+    @Test
+    void testPut_LargeBody_ShouldSpillOffHeap() {
+        PageCache cache = new PageCache(1024, 1024 * 1024, 16, 60_000);
+        PageCache.CachedPage page = cache.put("https://www.ecfr.gov/", body(PAGE), "UTF-8", 200, 1);
+
+        assertEquals(0, cache.getHeapBytes());
+        assertEquals(PAGE.length(), cache.getOffHeapBytes());
+        assertEquals("Title 1", cache.withDocument(page, d -> d.selectFirst("h1").text()));
+    }
+
+    @Test
+    void testGet_Expired_ShouldMiss() {
+        PageCache cache = new PageCache(1024 * 1024, 1024 * 1024, Integer.MAX_VALUE, -1);
+        cache.put("https://www.ecfr.gov/", body(PAGE), "UTF-8", 200, 1);
+
+        assertNull(cache.get("https://www.ecfr.gov/"));
+        assertEquals(0, cache.getHeapBytes());
+    }
+}
@@ -0,0 +1,74 @@
+#!/bin/bash
+
+# Measures time-to-first-healthy-response and resident memory for each backend runtime variant.
+# Each build below replaces target/, so build a variant and measure it before building the next
+# (run the builds from backend/):
+#   mvn clean package -DskipTests                     then  ./measure-startup.sh default analyzer
+#   mvn clean package -DskipTests -Pappcds            then  ./measure-startup.sh appcds
+#   mvn clean -Pnative native:compile -DskipTests     then  ./measure-startup.sh native   (needs GraalVM)
+
+BLUE='\033[0;34m'
+GREEN='\033[0;32m'
+YELLOW='\033[1;33m'
+NC='\033[0m' # No Color
+
+BACKEND_DIR="$(cd "$(dirname "$0")/backend" && pwd)"
+JAR="$BACKEND_DIR/target/ecfr-site-analysis-1.0.0-SNAPSHOT.jar"
+PORT=${PORT:-18080}
+HEALTH_URL="http://localhost:$PORT/api/analysis/health"
+
+print_status() {
+    echo -e "${BLUE}[INFO]${NC} $1"
+}
+
+print_warning() {
+    echo -e "${YELLOW}[WARNING]${NC} $1"
+}
+
+# Starts a command, waits for the health endpoint, then reports elapsed time and RSS
+measure() {
+    local name=$1
+    shift
+
+    local start=$(date +%s%N)
+    "$@" --server.port=$PORT > "/tmp/measure-$name.log" 2>&1 &
+    local pid=$!
+
+    until curl -sf "$HEALTH_URL" > /dev/null; do
+        if ! kill -0 $pid 2> /dev/null; then
+            print_warning "$name exited before becoming healthy, see /tmp/measure-$name.log"
+            return
+        fi
+        sleep 0.05
+    done
+    local elapsed_ms=$(( ($(date +%s%N) - start) / 1000000 ))
+    local rss_kb=$(grep VmRSS /proc/$pid/status | awk '{print $2}')
+
+    kill $pid
+    wait $pid 2> /dev/null
+    echo -e "${GREEN}$(printf '%-10s %8d ms %8d MB' "$name" "$elapsed_ms" $((rss_kb / 1024)))${NC}"
+}
+
+VARIANTS=${@:-default analyzer appcds native}
+
+print_status "Measuring startup on port $PORT: $VARIANTS"
+for variant in $VARIANTS; do
+    case $variant in
+        default)
+            measure default java -jar "$JAR"
+            ;;
+        analyzer)
+            measure analyzer java -jar "$JAR" --spring.profiles.active=analyzer
+            ;;
+        appcds)
+            measure appcds java -XX:SharedArchiveFile="$BACKEND_DIR/target/app.jsa" -jar "$JAR" \
+                --spring.profiles.active=analyzer
+            ;;
+        native)
+            measure native "$BACKEND_DIR/target/ecfr-site-analysis" --spring.profiles.active=analyzer
+            ;;
+        *)
+            print_warning "Unknown variant: $variant"
+            ;;
+    esac
+done